@@ -0,0 +1,131 @@
+package com.wangxinarhat.mvp.data.source.local;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.Date;
+
+import rx.functions.Func1;
+
+import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankEntry;
+
+/**
+ * Rows/sec of the per-row {@code getColumnIndexOrThrow} mapper we used to have against
+ * {@link GankCursorMapper}, over a 10k row table. Results go to logcat under {@link #TAG}.
+ */
+public class GankCursorMapperBenchmark extends AndroidTestCase {
+
+    private static final String TAG = "GankCursorMapperBench";
+
+    private static final int ROWS = 10000;
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * The mapper GanksLocalDataSource had before, resolving every column on every row.
+     */
+    private static final Func1<Cursor, Gank> PER_ROW_MAPPER = new Func1<Cursor, Gank>() {
+        @Override
+        public Gank call(Cursor c) {
+            Gank gank = new Gank(
+                    c.getString(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_TITLE)),
+                    c.getString(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_DESCRIPTION)),
+                    c.getString(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_ENTRY_ID)),
+                    c.getInt(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_COMPLETED)) == 1);
+            gank.setType(c.getString(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_TYPE)));
+            gank.setUrl(c.getString(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_URL)));
+            gank.setPublishedAt(new Date(c.getLong(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_PUBLISHED_AT))));
+            gank.setCreatedAt(new Date(c.getLong(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_CREATED_AT))));
+            gank.setUpdatedAt(new Date(c.getLong(c.getColumnIndexOrThrow(GankEntry.COLUMN_NAME_UPDATED_AT))));
+            return gank;
+        }
+    };
+
+    public void testRowsPerSecond() {
+        Cursor cursor = buildCursor();
+        try {
+            // Warm up the JIT on both paths before measuring.
+            map(cursor, PER_ROW_MAPPER);
+            map(cursor, new GankCursorMapper());
+            fill(cursor, new GankCursorMapper());
+
+            long perRow = 0;
+            long cached = 0;
+            long reused = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                perRow += map(cursor, PER_ROW_MAPPER);
+                cached += map(cursor, new GankCursorMapper());
+                reused += fill(cursor, new GankCursorMapper());
+            }
+            Log.i(TAG, "per-row lookups: " + rowsPerSecond(perRow) + " rows/s");
+            Log.i(TAG, "cached indexes:  " + rowsPerSecond(cached) + " rows/s");
+            Log.i(TAG, "reused Gank:     " + rowsPerSecond(reused) + " rows/s");
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void testMapsSameGankAsPerRowLookups() {
+        Cursor cursor = buildCursor();
+        try {
+            GankCursorMapper mapper = new GankCursorMapper();
+            while (cursor.moveToNext()) {
+                Gank expected = PER_ROW_MAPPER.call(cursor);
+                Gank actual = mapper.call(cursor);
+                assertEquals(expected, actual);
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getUrl(), actual.getUrl());
+                assertEquals(expected.getPublishedAt(), actual.getPublishedAt());
+                assertEquals(expected.isCompleted(), actual.isCompleted());
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static long map(Cursor cursor, Func1<Cursor, Gank> mapper) {
+        cursor.moveToPosition(-1);
+        long start = System.nanoTime();
+        int rows = 0;
+        while (cursor.moveToNext()) {
+            mapper.call(cursor);
+            rows++;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(ROWS, rows);
+        return elapsed;
+    }
+
+    private static long fill(Cursor cursor, GankCursorMapper mapper) {
+        cursor.moveToPosition(-1);
+        Gank gank = new Gank();
+        long start = System.nanoTime();
+        int rows = 0;
+        while (cursor.moveToNext()) {
+            mapper.fill(cursor, gank);
+            rows++;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(ROWS, rows);
+        return elapsed;
+    }
+
+    private static long rowsPerSecond(long totalNanos) {
+        return (long) ROWS * ROUNDS * 1000000000L / Math.max(1, totalNanos);
+    }
+
+    private static Cursor buildCursor() {
+        MatrixCursor cursor = new MatrixCursor(GankCursorMapper.COLUMNS, ROWS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            cursor.addRow(new Object[]{
+                    "id" + i, "title " + i, "who " + i, "Android", "http://gank.io/" + i,
+                    now - i, now - i, now - i, i % 2});
+        }
+        return cursor;
+    }
+}
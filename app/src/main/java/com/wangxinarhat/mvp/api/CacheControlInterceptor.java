@@ -0,0 +1,129 @@
+package com.wangxinarhat.mvp.api;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wangxinarhat.mvp.utils.DateUtil;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.List;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.GzipSource;
+import okio.Okio;
+
+/**
+ * Network interceptor that makes the responses for past daily issues cacheable for good.
+ * <p>
+ * gank.io does not send useful cache headers. An issue no longer changes once its day is over, so
+ * {@code day/{year}/{month}/{day}} responses for days before today are given a one year max-age;
+ * today's issue is left to the server's headers and to conditional requests.
+ * <p>
+ * Only issues with ganks are kept for good. A past day that came back empty may just not have
+ * been published yet, so it gets a short max-age and is asked for again after that.
+ */
+public class CacheControlInterceptor implements Interceptor {
+
+    private static final String PAST_DAY_CACHE_CONTROL = "public, max-age=" + 365 * 24 * 60 * 60;
+
+    private static final String EMPTY_DAY_CACHE_CONTROL = "public, max-age=" + 60 * 60;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!response.isSuccessful() || !isPastDay(request)) {
+            return response;
+        }
+        return response.newBuilder()
+                .header("Cache-Control", hasGanks(response) ? PAST_DAY_CACHE_CONTROL : EMPTY_DAY_CACHE_CONTROL)
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .build();
+    }
+
+    /**
+     * @return whether {@code request} is a GET of a day before today
+     */
+    static boolean isPastDay(Request request) {
+        if (!"GET".equals(request.method())) {
+            return false;
+        }
+        List<String> segments = request.url().pathSegments();
+        int size = segments.size();
+        if (size < 4 || !"day".equals(segments.get(size - 4))) {
+            return false;
+        }
+        try {
+            int dayKey = Integer.parseInt(segments.get(size - 3)) * 10000
+                    + Integer.parseInt(segments.get(size - 2)) * 100
+                    + Integer.parseInt(segments.get(size - 1));
+            return dayKey < DateUtil.toDayKey(new Date(System.currentTimeMillis()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a copy of the body, which is still gzipped here if OkHttp asked for it. An issue is a
+     * few kilobytes, so buffering it whole costs nothing the cache would not do anyway.
+     *
+     * @return whether the issue in {@code response} has any ganks; false if it cannot be read
+     */
+    private static boolean hasGanks(Response response) throws IOException {
+        BufferedSource source = response.body().source();
+        source.request(Long.MAX_VALUE);
+        Buffer copy = source.buffer().clone();
+        BufferedSource body = "gzip".equalsIgnoreCase(response.header("Content-Encoding"))
+                ? Okio.buffer(new GzipSource(copy)) : copy;
+        JsonReader reader = new JsonReader(new InputStreamReader(body.inputStream(), UTF_8));
+        try {
+            return hasGanks(reader);
+        } catch (IOException e) {
+            return false;
+        } catch (IllegalStateException e) {
+            // Not the JSON of an issue.
+            return false;
+        } catch (JsonParseException e) {
+            return false;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * An empty issue comes back as {@code {"category": [], "error": false, "results": {}}}.
+     */
+    private static boolean hasGanks(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if ("category".equals(name) && token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                if (reader.hasNext()) {
+                    return true;
+                }
+                reader.endArray();
+            } else if ("results".equals(name) && token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                if (reader.hasNext()) {
+                    return true;
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,216 @@
+package com.wangxinarhat.mvp.api;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.GankData;
+import com.wangxinarhat.mvp.global.GankCategory;
+import com.wangxinarhat.mvp.utils.IsoDates;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Decodes {@link GankData} with a {@link JsonReader} as the body streams in, instead of having Gson
+ * bind a {@code Results} object with one list per category by reflection.
+ * <p>
+ * The ganks go straight into {@link GankData#ganks}, in display order: welfare first, then the
+ * other categories in {@link #DISPLAY_ORDER}. Categories the app does not show and unknown fields
+ * are skipped without being decoded. Other types are left to the next converter.
+ */
+public class GankDataConverterFactory extends Converter.Factory {
+
+    private static final GankCategory[] DISPLAY_ORDER = {
+            GankCategory.福利,
+            GankCategory.Android,
+            GankCategory.iOS,
+            GankCategory.App,
+            GankCategory.拓展资源,
+            GankCategory.瞎推荐,
+            GankCategory.休息视频
+    };
+
+    /**
+     * A daily issue has a few ganks per category.
+     */
+    private static final int GANKS_PER_CATEGORY = 6;
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    public static GankDataConverterFactory create() {
+        return new GankDataConverterFactory();
+    }
+
+    private GankDataConverterFactory() {
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        return type == GankData.class ? new GankDataConverter() : null;
+    }
+
+    private static final class GankDataConverter implements Converter<ResponseBody, GankData> {
+
+        @Override
+        public GankData convert(ResponseBody value) throws IOException {
+            JsonReader reader = new JsonReader(value.charStream());
+            try {
+                return readGankData(reader);
+            } finally {
+                value.close();
+            }
+        }
+    }
+
+    static GankData readGankData(JsonReader reader) throws IOException {
+        GankData data = new GankData();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("category".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                data.category = readStrings(reader);
+            } else if ("results".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                int capacity = data.category == null
+                        ? DEFAULT_CAPACITY : data.category.size() * GANKS_PER_CATEGORY;
+                data.ganks = readResults(reader, capacity);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (data.ganks == null) {
+            data.ganks = new ArrayList<>(0);
+        }
+        return data;
+    }
+
+    /**
+     * Each category's ganks are appended as one run; the runs are put in display order at the end,
+     * which is a no-op when the server already sent them that way.
+     */
+    private static List<Gank> readResults(JsonReader reader, int capacity) throws IOException {
+        List<Gank> ganks = new ArrayList<>(capacity);
+        // Start of the run of each category, by display rank, or -1 if absent.
+        int[] runStarts = new int[DISPLAY_ORDER.length];
+        int[] runEnds = new int[DISPLAY_ORDER.length];
+        Arrays.fill(runStarts, -1);
+        boolean inOrder = true;
+        int lastRank = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int rank = rankOf(reader.nextName());
+            if (rank < 0 || runStarts[rank] >= 0 || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            runStarts[rank] = ganks.size();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ganks.add(readGank(reader));
+            }
+            reader.endArray();
+            runEnds[rank] = ganks.size();
+            inOrder &= rank > lastRank;
+            lastRank = rank;
+        }
+        reader.endObject();
+
+        if (inOrder) {
+            return ganks;
+        }
+        List<Gank> ordered = new ArrayList<>(ganks.size());
+        for (int rank = 0; rank < DISPLAY_ORDER.length; rank++) {
+            if (runStarts[rank] >= 0) {
+                ordered.addAll(ganks.subList(runStarts[rank], runEnds[rank]));
+            }
+        }
+        return ordered;
+    }
+
+    private static Gank readGank(JsonReader reader) throws IOException {
+        Gank gank = new Gank();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "_id":
+                    gank.setId(reader.nextString());
+                    break;
+                case "desc":
+                    gank.setTitle(reader.nextString());
+                    break;
+                case "who":
+                    gank.setDescription(reader.nextString());
+                    break;
+                case "type":
+                    gank.setType(reader.nextString());
+                    break;
+                case "url":
+                    gank.setUrl(reader.nextString());
+                    break;
+                case "publishedAt":
+                    gank.setPublishedAt(readDate(reader));
+                    break;
+                case "createdAt":
+                    gank.setCreatedAt(readDate(reader));
+                    break;
+                case "updatedAt":
+                    gank.setUpdatedAt(readDate(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return gank;
+    }
+
+    private static Date readDate(JsonReader reader) throws IOException {
+        String date = reader.nextString();
+        try {
+            return new Date(IsoDates.parse(date));
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException(date, e);
+        }
+    }
+
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> strings = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.STRING) {
+                strings.add(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return strings;
+    }
+
+    private static int rankOf(String category) {
+        for (int i = 0; i < DISPLAY_ORDER.length; i++) {
+            if (DISPLAY_ORDER[i].name().equals(category)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
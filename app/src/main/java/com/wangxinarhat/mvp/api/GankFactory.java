@@ -19,6 +19,10 @@
 
 package com.wangxinarhat.mvp.api;
 
+import com.wangxinarhat.mvp.global.BaseApplication;
+
+import okhttp3.OkHttpClient;
+
 /**
  * data factory
  *
@@ -29,14 +33,48 @@ public class GankFactory {
 
     private static GankService mGankService;
 
+    private static OkHttpClient mHttpClient;
+
+    private static OkHttpClient mImageHttpClient;
+
     protected static final Object monitor = new Object();
 
     public static GankService getGankService() {
         synchronized (monitor) {
             if (mGankService == null) {
-                mGankService = new RetrofitHelper().getService();
+                mGankService = new SingleFlightGankService(new RetrofitHelper(getHttpClient()).getService());
             }
             return mGankService;
         }
     }
+
+    /**
+     * The one client of the app, so that every request shares its connection pool and cache.
+     */
+    public static OkHttpClient getHttpClient() {
+        synchronized (monitor) {
+            if (mHttpClient == null) {
+                mHttpClient = RetrofitHelper.newClientBuilder(BaseApplication.getApplication()).build();
+            }
+            return mHttpClient;
+        }
+    }
+
+    /**
+     * For images. It shares the connection pool and dispatcher of {@link #getHttpClient()}, so
+     * image and API requests are limited together, but not its HTTP cache or interceptors: those
+     * are meant for gank.io responses.
+     */
+    public static OkHttpClient getImageHttpClient() {
+        synchronized (monitor) {
+            if (mImageHttpClient == null) {
+                OkHttpClient apiClient = getHttpClient();
+                mImageHttpClient = RetrofitHelper.newBaseClientBuilder()
+                        .connectionPool(apiClient.connectionPool())
+                        .dispatcher(apiClient.dispatcher())
+                        .build();
+            }
+            return mImageHttpClient;
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package com.wangxinarhat.mvp.api;
 
+import com.wangxinarhat.mvp.data.CategoryData;
 import com.wangxinarhat.mvp.data.GankData;
 import com.wangxinarhat.mvp.data.PrettyGirlData;
+import com.wangxinarhat.mvp.data.SearchData;
 import com.wangxinarhat.mvp.data.休息视频Data;
 
+import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Path;
 import rx.Observable;
 
@@ -15,6 +19,28 @@ import rx.Observable;
  */
 public interface GankService {
 
+    /**
+     * Category of {@link #search} that matches them all.
+     */
+    String SEARCH_ALL = "all";
+
+    /**
+     * Category of {@link #getCategoryData} that has them all.
+     */
+    String CATEGORY_ALL = "all";
+
+    /**
+     * category data, newest first
+     *
+     * @param category a {@link com.wangxinarhat.mvp.global.GankCategory} name, or {@link #CATEGORY_ALL}
+     * @param pagesize
+     * @param page     1-based
+     * @return
+     */
+    @GET("data/{category}/{pagesize}/{page}")
+    Observable<CategoryData> getCategoryData(@Path("category") String category, @Path("pagesize") int pagesize,
+                                             @Path("page") int page);
+
     /**
      * 妹子data
      *
@@ -46,5 +72,33 @@ public interface GankService {
     @GET("day/{year}/{month}/{day}")
     Observable<GankData> getGankData(@Path("year") int year, @Path("month") int month, @Path("day") int day);
 
+    /**
+     * conditional gank daily data, answered with 304 and no body when the day did not change
+     *
+     * @param year
+     * @param month
+     * @param day
+     * @param eTag         ETag of the copy we already have, or null
+     * @param lastModified Last-Modified of the copy we already have, or null
+     * @return
+     */
+    @GET("day/{year}/{month}/{day}")
+    Observable<Response<GankData>> getGankData(@Path("year") int year, @Path("month") int month, @Path("day") int day,
+                                               @Header("If-None-Match") String eTag,
+                                               @Header("If-Modified-Since") String lastModified);
+
+    /**
+     * search data, newest first
+     *
+     * @param query
+     * @param category a {@link com.wangxinarhat.mvp.global.GankCategory} name, or {@link #SEARCH_ALL}
+     * @param count    results per page
+     * @param page     1-based
+     * @return
+     */
+    @GET("search/query/{query}/category/{category}/count/{count}/page/{page}")
+    Observable<SearchData> search(@Path("query") String query, @Path("category") String category,
+                                  @Path("count") int count, @Path("page") int page);
+
 
 }
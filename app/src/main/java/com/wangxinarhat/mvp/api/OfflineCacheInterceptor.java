@@ -0,0 +1,60 @@
+package com.wangxinarhat.mvp.api;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that answers from the HTTP cache, stale or not, when the network is
+ * unavailable: straight away when the device is offline, and as a fallback when a request fails
+ * with an I/O error. If the cache has nothing either, the original failure is reported.
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+
+    private final Context mContext;
+
+    public OfflineCacheInterceptor(Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+        if (!isOnline()) {
+            return chain.proceed(onlyIfCached(request));
+        }
+        try {
+            return chain.proceed(request);
+        } catch (IOException e) {
+            Response cached = chain.proceed(onlyIfCached(request));
+            if (cached.code() == HttpURLConnection.HTTP_GATEWAY_TIMEOUT) {
+                // Not in the cache: OkHttp answers an only-if-cached miss with a 504.
+                cached.body().close();
+                throw e;
+            }
+            return cached;
+        }
+    }
+
+    private boolean isOnline() {
+        ConnectivityManager manager =
+                (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo info = manager == null ? null : manager.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    private static Request onlyIfCached(Request request) {
+        return request.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build();
+    }
+}
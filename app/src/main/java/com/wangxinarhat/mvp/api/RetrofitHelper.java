@@ -19,9 +19,18 @@
 
 package com.wangxinarhat.mvp.api;
 
+import android.content.Context;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.wangxinarhat.mvp.utils.IsoDateTypeAdapter;
+
+import java.io.File;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
@@ -38,18 +47,40 @@ public class RetrofitHelper {
 
     private static final String HOST = "http://gank.io/api/";
 
-    final Gson gson = new GsonBuilder().setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").serializeNulls().create();
+    private static final String HTTP_CACHE_DIR = "http";
+
+    /**
+     * A daily issue is a few KB, this keeps years of them.
+     */
+    private static final long HTTP_CACHE_MAX_BYTES = 10 * 1024 * 1024;
+
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 20;
+    private static final long WRITE_TIMEOUT_SECONDS = 20;
+
+    /**
+     * Everything goes to one host; a few idle connections are enough for the parallel day requests.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
 
+    final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Date.class, new IsoDateTypeAdapter())
+            .serializeNulls()
+            .create();
 
-    public RetrofitHelper() {
-        OkHttpClient client = new OkHttpClient();
-        client.connectTimeoutMillis();
 
+    public RetrofitHelper(Context context) {
+        this(newClientBuilder(context).build());
+    }
 
+    public RetrofitHelper(OkHttpClient client) {
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(HOST)
                 .client(client)
                 .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+                // Before Gson, which would take every type.
+                .addConverterFactory(GankDataConverterFactory.create())
                 .addConverterFactory(GsonConverterFactory.create(gson))
                 .build();
 
@@ -62,4 +93,32 @@ public class RetrofitHelper {
     public GankService getService() {
         return mService;
     }
+
+    /**
+     * The client settings for gank.io, for callers to tune further.
+     * <p>
+     * Responses are cached on disk, past issues for good (see {@link CacheControlInterceptor}), and
+     * the cache answers on its own when the network is unavailable (see
+     * {@link OfflineCacheInterceptor}). OkHttp asks for gzip and unzips transparently, so no
+     * Accept-Encoding header is set here: doing so would turn that off.
+     */
+    public static OkHttpClient.Builder newClientBuilder(Context context) {
+        File cacheDir = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+        return newBaseClientBuilder()
+                .cache(new Cache(cacheDir, HTTP_CACHE_MAX_BYTES))
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .addInterceptor(new OfflineCacheInterceptor(context))
+                .addNetworkInterceptor(new CacheControlInterceptor());
+    }
+
+    /**
+     * Timeouts only: no cache and none of the gank.io interceptors, for clients that fetch
+     * something else.
+     */
+    public static OkHttpClient.Builder newBaseClientBuilder() {
+        return new OkHttpClient.Builder()
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
 }
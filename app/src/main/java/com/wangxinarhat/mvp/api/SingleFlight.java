@@ -0,0 +1,89 @@
+package com.wangxinarhat.mvp.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
+
+/**
+ * Collapses concurrent identical requests: while a request for a key is in flight, everyone else
+ * asking for that key subscribes to it instead of starting their own.
+ * <p>
+ * The request is dropped from the table when it terminates, or when its last subscriber leaves,
+ * which also cancels it. It is replayed rather than shared, so a caller joining after the answer
+ * but before completion still gets it.
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, Observable<?>> mInFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong mCalls = new AtomicLong();
+
+    private final AtomicLong mCollapsed = new AtomicLong();
+
+    /**
+     * @param key    identifies the request, e.g. endpoint and arguments
+     * @param source the request, subscribed to at most once at a time
+     */
+    public <T> Observable<T> run(final String key, final Observable<T> source) {
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                mCalls.incrementAndGet();
+                @SuppressWarnings("unchecked")
+                Observable<T> inFlight = (Observable<T>) mInFlight.get(key);
+                if (inFlight != null) {
+                    mCollapsed.incrementAndGet();
+                    return inFlight;
+                }
+                final AtomicReference<Observable<T>> self = new AtomicReference<>();
+                Action0 done = new Action0() {
+                    @Override
+                    public void call() {
+                        mInFlight.remove(key, self.get());
+                    }
+                };
+                Observable<T> request = source
+                        .doAfterTerminate(done)
+                        .doOnUnsubscribe(done)
+                        .replay(1)
+                        .refCount();
+                self.set(request);
+                @SuppressWarnings("unchecked")
+                Observable<T> raced = (Observable<T>) mInFlight.putIfAbsent(key, request);
+                if (raced != null) {
+                    mCollapsed.incrementAndGet();
+                    return raced;
+                }
+                return request;
+            }
+        });
+    }
+
+    /**
+     * @return how many requests were subscribed to
+     */
+    public long getCallCount() {
+        return mCalls.get();
+    }
+
+    /**
+     * @return how many of those joined a request already in flight instead of making their own
+     */
+    public long getCollapsedCount() {
+        return mCollapsed.get();
+    }
+
+    public int getInFlightCount() {
+        return mInFlight.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlight[calls=" + mCalls.get() + ",collapsed=" + mCollapsed.get()
+                + ",inFlight=" + mInFlight.size() + "]";
+    }
+}
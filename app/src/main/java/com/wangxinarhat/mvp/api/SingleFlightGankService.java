@@ -0,0 +1,73 @@
+package com.wangxinarhat.mvp.api;
+
+import com.wangxinarhat.mvp.data.CategoryData;
+import com.wangxinarhat.mvp.data.GankData;
+import com.wangxinarhat.mvp.data.PrettyGirlData;
+import com.wangxinarhat.mvp.data.SearchData;
+import com.wangxinarhat.mvp.data.休息视频Data;
+
+import retrofit2.Response;
+import rx.Observable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link GankService} that sends identical concurrent calls over the network once. Refreshing,
+ * changing the filter and coming back to the list can all ask for the same day at the same time.
+ *
+ * @see SingleFlight
+ */
+public class SingleFlightGankService implements GankService {
+
+    private final GankService mService;
+
+    private final SingleFlight mSingleFlight = new SingleFlight();
+
+    public SingleFlightGankService(GankService service) {
+        mService = checkNotNull(service);
+    }
+
+    /**
+     * @return how many calls were collapsed so far
+     */
+    public SingleFlight getSingleFlight() {
+        return mSingleFlight;
+    }
+
+    @Override
+    public Observable<CategoryData> getCategoryData(String category, int pagesize, int page) {
+        return mSingleFlight.run("data/" + category + "/" + pagesize + "/" + page,
+                mService.getCategoryData(category, pagesize, page));
+    }
+
+    @Override
+    public Observable<PrettyGirlData> getPrettyGirlData(int pagesize, int page) {
+        return mSingleFlight.run("girls/" + pagesize + "/" + page,
+                mService.getPrettyGirlData(pagesize, page));
+    }
+
+    @Override
+    public Observable<休息视频Data> get休息视频Data(int pagesize, int page) {
+        return mSingleFlight.run("videos/" + pagesize + "/" + page,
+                mService.get休息视频Data(pagesize, page));
+    }
+
+    @Override
+    public Observable<GankData> getGankData(int year, int month, int day) {
+        return mSingleFlight.run("day/" + year + "/" + month + "/" + day,
+                mService.getGankData(year, month, day));
+    }
+
+    @Override
+    public Observable<Response<GankData>> getGankData(int year, int month, int day, String eTag,
+                                                      String lastModified) {
+        return mSingleFlight.run("day/" + year + "/" + month + "/" + day + "?" + eTag + "&" + lastModified,
+                mService.getGankData(year, month, day, eTag, lastModified));
+    }
+
+    @Override
+    public Observable<SearchData> search(String query, String category, int count, int page) {
+        return mSingleFlight.run("search/" + category + "/" + count + "/" + page + "/" + query,
+                mService.search(query, category, count, page));
+    }
+}
@@ -0,0 +1,92 @@
+package com.wangxinarhat.mvp.category;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.design.widget.TabLayout;
+import android.support.v4.app.Fragment;
+import android.support.v4.view.ViewPager;
+import android.support.v7.app.ActionBar;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.Toolbar;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.source.GanksRepository;
+import com.wangxinarhat.mvp.data.source.local.GanksLocalDataSource;
+import com.wangxinarhat.mvp.data.source.remote.GanksRemoteDataSource;
+import com.wangxinarhat.mvp.global.BaseApplication;
+
+import java.util.Date;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+/**
+ * The ganks by category, one tab each.
+ */
+public class CategoryActivity extends AppCompatActivity {
+
+    @BindView(R.id.toolbar)
+    Toolbar mToolbar;
+    @BindView(R.id.tabs)
+    TabLayout mTabs;
+    @BindView(R.id.pager)
+    ViewPager mPager;
+
+    private CategoryFeeds mFeeds;
+
+    public static Intent getIntent() {
+        return new Intent(BaseApplication.getApplication(), CategoryActivity.class);
+    }
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        // Before super: fragments restored there attach to feeds.
+        GanksRepository ganksRepository = GanksRepository.getInstance(
+                GanksRemoteDataSource.getInstance(
+                        new Date(System.currentTimeMillis())), GanksLocalDataSource.getInstance(this));
+        mFeeds = new CategoryFeeds(ganksRepository);
+
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.act_category);
+        ButterKnife.bind(this);
+
+        initView();
+    }
+
+    private void initView() {
+        setSupportActionBar(mToolbar);
+        ActionBar ab = getSupportActionBar();
+        ab.setHomeButtonEnabled(true);
+        ab.setDisplayHomeAsUpEnabled(true);
+        ab.setTitle(R.string.nav_categories);
+
+        mPager.setAdapter(new CategoryPagerAdapter(getSupportFragmentManager(), this));
+        mTabs.setupWithViewPager(mPager);
+    }
+
+    /**
+     * Gives every tab its presenter as it attaches, whether the pager created it or it was
+     * restored with the activity.
+     */
+    @Override
+    public void onAttachFragment(Fragment fragment) {
+        super.onAttachFragment(fragment);
+        if (fragment instanceof CategoryFragment) {
+            CategoryFragment categoryFragment = (CategoryFragment) fragment;
+            new CategoryPresenter(mFeeds.get(categoryFragment.getType()), categoryFragment);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mFeeds.cancelAll();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
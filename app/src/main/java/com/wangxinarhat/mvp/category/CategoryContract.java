@@ -0,0 +1,58 @@
+package com.wangxinarhat.mvp.category;
+
+import android.support.annotation.NonNull;
+
+import com.wangxinarhat.mvp.base.BasePresenter;
+import com.wangxinarhat.mvp.base.BaseView;
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.List;
+
+/**
+ * This specifies the contract between a category tab and its presenter.
+ */
+public interface CategoryContract {
+
+    interface View extends BaseView<Presenter> {
+
+        void setLoadingIndicator(boolean active);
+
+        /**
+         * replace the ganks on screen
+         */
+        void showGanks(List<Gank> ganks);
+
+        /**
+         * add the next page after the ganks on screen
+         */
+        void showMoreGanks(List<Gank> ganks);
+
+        void showNoGanks();
+
+        void showLoadingGanksError();
+
+        void showGankDetailsUi(String url, String title);
+
+        boolean isActive();
+    }
+
+    interface Presenter extends BasePresenter {
+
+        /**
+         * start over from the newest ganks
+         */
+        void refresh();
+
+        /**
+         * ask again for the page that failed
+         */
+        void retry();
+
+        /**
+         * the gank at {@code position} is on screen
+         */
+        void onGankVisible(int position);
+
+        void openGankDetails(@NonNull Gank requestedGank);
+    }
+}
@@ -0,0 +1,69 @@
+package com.wangxinarhat.mvp.category;
+
+import android.support.annotation.NonNull;
+
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.source.GanksRepository;
+import com.wangxinarhat.mvp.data.source.PagedFeed;
+import com.wangxinarhat.mvp.ganks.GanksType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * One {@link PagedFeed} per category, kept while the tabs are, so going back to a tab shows what
+ * was read there without asking for it again.
+ */
+class CategoryFeeds {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * About a screen and a half of rows.
+     */
+    private static final int PREFETCH_DISTANCE = 15;
+
+    private static final Func1<Gank, String> GANK_ID = new Func1<Gank, String>() {
+        @Override
+        public String call(Gank gank) {
+            return gank.getId();
+        }
+    };
+
+    private final GanksRepository mGanksRepository;
+
+    private final Map<GanksType, PagedFeed<Gank>> mFeeds = new EnumMap<>(GanksType.class);
+
+    CategoryFeeds(@NonNull GanksRepository ganksRepository) {
+        mGanksRepository = checkNotNull(ganksRepository);
+    }
+
+    PagedFeed<Gank> get(final GanksType type) {
+        PagedFeed<Gank> feed = mFeeds.get(type);
+        if (feed == null) {
+            feed = new PagedFeed<>(new PagedFeed.PageLoader<Gank>() {
+                @Override
+                public Observable<List<Gank>> loadPage(int page) {
+                    return mGanksRepository.getCategoryGanks(type.category(), PAGE_SIZE, page)
+                            .subscribeOn(Schedulers.io());
+                }
+            }, GANK_ID, PAGE_SIZE, PREFETCH_DISTANCE, AndroidSchedulers.mainThread());
+            mFeeds.put(type, feed);
+        }
+        return feed;
+    }
+
+    void cancelAll() {
+        for (PagedFeed<Gank> feed : mFeeds.values()) {
+            feed.cancel();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.wangxinarhat.mvp.category;
+
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.design.widget.Snackbar;
+import android.support.v4.app.Fragment;
+import android.support.v4.widget.SwipeRefreshLayout;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.gankdetail.GankDetailActivity;
+import com.wangxinarhat.mvp.ganks.GankRowsAdapter;
+import com.wangxinarhat.mvp.ganks.GanksType;
+
+import java.util.Collections;
+import java.util.List;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The ganks of one category, newest first, loaded page by page as the user scrolls.
+ */
+public class CategoryFragment extends Fragment implements CategoryContract.View, GankRowsAdapter.OnGankClickListener,
+        SwipeRefreshLayout.OnRefreshListener {
+
+    private static final String ARGUMENT_TYPE = "TYPE";
+
+    @BindView(R.id.swipe)
+    SwipeRefreshLayout mSwipe;
+    @BindView(R.id.recycler)
+    RecyclerView mRecycler;
+    @BindView(R.id.category_empty)
+    TextView mEmpty;
+
+    private CategoryContract.Presenter mPresenter;
+
+    private GankRowsAdapter mAdapter;
+
+    public static CategoryFragment newInstance(GanksType type) {
+        Bundle arguments = new Bundle();
+        arguments.putString(ARGUMENT_TYPE, type.name());
+        CategoryFragment fragment = new CategoryFragment();
+        fragment.setArguments(arguments);
+        return fragment;
+    }
+
+    public GanksType getType() {
+        return GanksType.valueOf(getArguments().getString(ARGUMENT_TYPE));
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        mPresenter.subscribe();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        mPresenter.unsubscribe();
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.frag_category, container, false);
+        ButterKnife.bind(this, root);
+        return root;
+    }
+
+    @Override
+    public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        mAdapter = new GankRowsAdapter(this);
+        final LinearLayoutManager layoutManager = new LinearLayoutManager(getActivity());
+        mRecycler.setLayoutManager(layoutManager);
+        mRecycler.setHasFixedSize(true);
+        mRecycler.setAdapter(mAdapter);
+        mRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    mPresenter.onGankVisible(layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
+
+        mSwipe.setOnRefreshListener(this);
+    }
+
+    @Override
+    public void setPresenter(CategoryContract.Presenter presenter) {
+        mPresenter = checkNotNull(presenter);
+    }
+
+    @Override
+    public void onRefresh() {
+        mPresenter.refresh();
+    }
+
+    @Override
+    public void setLoadingIndicator(final boolean active) {
+        if (getView() == null) {
+            return;
+        }
+        // Make sure setRefreshing() is called after the layout is done with everything else.
+        mSwipe.post(new Runnable() {
+            @Override
+            public void run() {
+                mSwipe.setRefreshing(active);
+            }
+        });
+    }
+
+    @Override
+    public void showGanks(List<Gank> ganks) {
+        mEmpty.setVisibility(View.GONE);
+        mAdapter.replaceData(ganks);
+    }
+
+    @Override
+    public void showMoreGanks(List<Gank> ganks) {
+        mAdapter.appendData(ganks);
+    }
+
+    @Override
+    public void showNoGanks() {
+        mAdapter.replaceData(Collections.<Gank>emptyList());
+        mEmpty.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    public void showLoadingGanksError() {
+        Snackbar.make(mRecycler, R.string.loading_ganks_error, Snackbar.LENGTH_LONG)
+                .setAction(R.string.retry, new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                        mPresenter.retry();
+                    }
+                })
+                .show();
+    }
+
+    @Override
+    public void showGankDetailsUi(String url, String title) {
+        startActivity(GankDetailActivity.getIntent(url, title));
+    }
+
+    @Override
+    public boolean isActive() {
+        return isAdded();
+    }
+
+    @Override
+    public void onGankClick(Gank gank) {
+        mPresenter.openGankDetails(gank);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wangxinarhat.mvp.category;
+
+import android.content.Context;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentPagerAdapter;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.ganks.GanksType;
+
+/**
+ * One {@link CategoryFragment} tab per category. Welfare pictures have a gallery of their own.
+ */
+class CategoryPagerAdapter extends FragmentPagerAdapter {
+
+    static final GanksType[] TABS = {
+            GanksType.ALL_GankS,
+            GanksType.Android,
+            GanksType.iOS,
+            GanksType.App,
+            GanksType.拓展资源,
+            GanksType.瞎推荐,
+            GanksType.休息视频
+    };
+
+    private final Context mContext;
+
+    CategoryPagerAdapter(FragmentManager fm, Context context) {
+        super(fm);
+        mContext = context;
+    }
+
+    @Override
+    public Fragment getItem(int position) {
+        return CategoryFragment.newInstance(TABS[position]);
+    }
+
+    @Override
+    public int getCount() {
+        return TABS.length;
+    }
+
+    @Override
+    public CharSequence getPageTitle(int position) {
+        GanksType type = TABS[position];
+        return type == GanksType.ALL_GankS ? mContext.getString(R.string.nav_all) : type.name();
+    }
+}
@@ -0,0 +1,112 @@
+package com.wangxinarhat.mvp.category;
+
+import android.support.annotation.NonNull;
+
+import com.orhanobut.logger.Logger;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.source.PagedFeed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Shows one category's {@link PagedFeed} in a {@link CategoryFragment}. The feed outlives the
+ * presenter: pages asked for keep coming while the tab is off screen, and are shown when it
+ * comes back.
+ */
+public class CategoryPresenter implements CategoryContract.Presenter, PagedFeed.Listener<Gank> {
+
+    private static final String TAG = CategoryPresenter.class.getCanonicalName();
+
+    private final PagedFeed<Gank> mFeed;
+
+    private final CategoryContract.View mCategoryView;
+
+    public CategoryPresenter(@NonNull PagedFeed<Gank> feed, @NonNull CategoryContract.View categoryView) {
+        mFeed = checkNotNull(feed, "feed cannot be null");
+        mCategoryView = checkNotNull(categoryView, "categoryView cannot be null!");
+        mCategoryView.setPresenter(this);
+    }
+
+    @Override
+    public void subscribe() {
+        mFeed.setListener(this);
+        if (!mFeed.getItems().isEmpty()) {
+            mCategoryView.showGanks(mFeed.getItems());
+        } else if (mFeed.isEnded()) {
+            mCategoryView.showNoGanks();
+        }
+        mCategoryView.setLoadingIndicator(mFeed.isLoading() && mFeed.getItems().isEmpty());
+        mFeed.start();
+    }
+
+    @Override
+    public void unsubscribe() {
+        mFeed.setListener(null);
+    }
+
+    @Override
+    public void refresh() {
+        mFeed.refresh();
+    }
+
+    @Override
+    public void retry() {
+        mFeed.retry();
+    }
+
+    @Override
+    public void onGankVisible(int position) {
+        mFeed.onItemVisible(position);
+    }
+
+    @Override
+    public void openGankDetails(@NonNull Gank requestedGank) {
+        checkNotNull(requestedGank, "requestedGank cannot be null!");
+        mCategoryView.showGankDetailsUi(requestedGank.getUrl(), requestedGank.getTitle());
+    }
+
+    @Override
+    public void onItemsReset(List<Gank> items) {
+        if (!mCategoryView.isActive()) {
+            return;
+        }
+        if (items.isEmpty()) {
+            mCategoryView.showNoGanks();
+        } else {
+            mCategoryView.showGanks(items);
+        }
+    }
+
+    @Override
+    public void onItemsAppended(List<Gank> items, int start, int count) {
+        if (!mCategoryView.isActive()) {
+            return;
+        }
+        mCategoryView.showMoreGanks(new ArrayList<>(items.subList(start, start + count)));
+    }
+
+    @Override
+    public void onLoadingChanged(boolean loading) {
+        if (!mCategoryView.isActive()) {
+            return;
+        }
+        if (!loading) {
+            mCategoryView.setLoadingIndicator(false);
+        } else if (mFeed.getItems().isEmpty()) {
+            // Later pages come in below the fold, only the first one spins. A refresh spins from
+            // the user's pull.
+            mCategoryView.setLoadingIndicator(true);
+        }
+    }
+
+    @Override
+    public void onPageError(int page, Throwable e) {
+        Logger.e(TAG, e.getMessage());
+        if (mCategoryView.isActive()) {
+            mCategoryView.showLoadingGanksError();
+        }
+    }
+}
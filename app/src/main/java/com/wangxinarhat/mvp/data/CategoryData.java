@@ -0,0 +1,16 @@
+package com.wangxinarhat.mvp.data;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * One page of a category, newest first.
+ */
+public class CategoryData {
+
+    @SerializedName("error")
+    public boolean error;
+    @SerializedName("results")
+    public List<Gank> results;
+}
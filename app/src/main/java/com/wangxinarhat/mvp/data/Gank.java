@@ -28,8 +28,8 @@ import java.util.UUID;
 /**
  * Immutable model class for a Task.
  */
-public final class Gank {
-    @SerializedName("_id")
+public final class Gank implements Cloneable {
+    @SerializedName(value = "_id", alternate = {"ganhuo_id"})
     private  String mId;
 
     @Nullable @SerializedName("desc")
@@ -47,7 +47,6 @@ public final class Gank {
     private Date createdAt;
     private Date publishedAt;
     private  boolean mCompleted;
-    private boolean isHeader;
 
 
 
@@ -168,14 +167,6 @@ public final class Gank {
         mCompleted = completed;
     }
 
-    public boolean isHeader() {
-        return isHeader;
-    }
-
-    public void setHeader(boolean header) {
-        isHeader = header;
-    }
-
     public boolean isWelfare() {
         return type.equals(GankCategory.福利.name());
     }
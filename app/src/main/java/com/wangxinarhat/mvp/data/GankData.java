@@ -36,4 +36,10 @@ public class GankData {
     @SerializedName("results")
     public Results results;
 
+    /**
+     * All the ganks of the day in display order, welfare first. Filled by
+     * {@link com.wangxinarhat.mvp.api.GankDataConverterFactory}, which leaves {@link #results} null.
+     */
+    public transient List<Gank> ganks;
+
 }
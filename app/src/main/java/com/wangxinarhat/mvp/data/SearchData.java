@@ -0,0 +1,19 @@
+package com.wangxinarhat.mvp.data;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * One page of search results. Results carry their id as {@code ganhuo_id}, which {@link Gank}
+ * accepts in place of {@code _id}.
+ */
+public class SearchData {
+
+    @SerializedName("count")
+    public int count;
+    @SerializedName("error")
+    public boolean error;
+    @SerializedName("results")
+    public List<Gank> results;
+}
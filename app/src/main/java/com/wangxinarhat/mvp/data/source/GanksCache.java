@@ -0,0 +1,490 @@
+package com.wangxinarhat.mvp.data.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * In-memory cache used by {@link GanksRepository}, one entry per daily issue.
+ * <p/>
+ * Days are kept in an LRU bounded either by the number of days or by an estimate of their size in
+ * bytes, and every cached gank is also indexed by id. One day (usually today's issue) can be
+ * pinned so it is never evicted.
+ * <p/>
+ * The whole cache is an immutable snapshot behind an {@link AtomicReference}. Readers never lock:
+ * they see one consistent snapshot, and the lists they get are never modified afterwards. Writers
+ * build a new snapshot from the current one and publish it with a compare-and-set, retrying if
+ * another writer got there first, so no update is lost. A read only bumps the access stamp of its
+ * day, which eviction looks at; the LRU order is therefore as good as the stamps, which is enough
+ * for a cache of a few dozen days.
+ */
+public class GanksCache {
+
+    /**
+     * Rough per-gank cost of the object, its Dates and the String headers, on top of the chars.
+     */
+    private static final int GANK_OVERHEAD_BYTES = 200;
+
+    private static final int NO_DAY = -1;
+
+    private final boolean mSizeInBytes;
+
+    private final int mMaxSize;
+
+    private final AtomicReference<Snapshot> mSnapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * Orders accesses to days, for eviction.
+     */
+    private final AtomicLong mClock = new AtomicLong();
+
+    private final AtomicInteger mHitCount = new AtomicInteger();
+
+    private final AtomicInteger mMissCount = new AtomicInteger();
+
+    private final AtomicInteger mEvictionCount = new AtomicInteger();
+
+    /**
+     * @param maxDays how many daily issues to keep, not counting the pinned one
+     */
+    public static GanksCache withMaxDays(int maxDays) {
+        return new GanksCache(maxDays, false);
+    }
+
+    /**
+     * @param maxBytes estimated heap the cached issues may use, not counting the pinned one
+     */
+    public static GanksCache withMaxBytes(int maxBytes) {
+        return new GanksCache(maxBytes, true);
+    }
+
+    private GanksCache(int maxSize, boolean sizeInBytes) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mSizeInBytes = sizeInBytes;
+    }
+
+    /**
+     * @return the ganks of that day, which will not change, or null if the day is not cached
+     */
+    @Nullable
+    public List<Gank> getDay(int day) {
+        Day cached = mSnapshot.get().getDay(day);
+        if (cached == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+        cached.lastAccess.set(mClock.incrementAndGet());
+        mHitCount.incrementAndGet();
+        return cached.ganks;
+    }
+
+    public void putDay(final int day, @NonNull List<Gank> ganks) {
+        checkNotNull(ganks);
+        // Copied once, outside of the retry loop.
+        final List<Gank> copy = Collections.unmodifiableList(new ArrayList<>(ganks));
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                builder.putDay(day, copy);
+            }
+        });
+    }
+
+    public boolean containsDay(int day) {
+        return mSnapshot.get().getDay(day) != null;
+    }
+
+    /**
+     * Keeps {@code day} out of the LRU so it survives browsing through older issues. The
+     * previously pinned day, if any, goes back into the LRU.
+     */
+    public void setPinnedDay(final int day) {
+        if (mSnapshot.get().pinnedDay == day) {
+            return;
+        }
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                builder.setPinnedDay(day);
+            }
+        });
+    }
+
+    /**
+     * Records when {@code day} was last fetched from the network.
+     */
+    public void markFetched(final int day, final long timeMillis) {
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                if (builder.containsDay(day)) {
+                    builder.fetchedAt.put(day, timeMillis);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return when {@code day} was last fetched from the network, 0 if unknown
+     */
+    public long fetchedAt(int day) {
+        Long fetchedAt = mSnapshot.get().fetchedAt.get(day);
+        return fetchedAt == null ? 0 : fetchedAt;
+    }
+
+    @Nullable
+    public Gank getGank(@NonNull String id) {
+        return mSnapshot.get().ganksById.get(checkNotNull(id));
+    }
+
+    /**
+     * Replaces the cached copy of {@code gank}, matched by id. Ganks of days that are not cached
+     * are ignored.
+     */
+    public void updateGank(@NonNull final Gank gank) {
+        checkNotNull(gank);
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                Integer day = builder.dayOfGank(gank.getId());
+                if (day == null) {
+                    return;
+                }
+                List<Gank> ganks = new ArrayList<>(builder.peekDay(day));
+                for (int i = 0; i < ganks.size(); i++) {
+                    if (ganks.get(i).getId().equals(gank.getId())) {
+                        ganks.set(i, gank);
+                    }
+                }
+                builder.putDay(day, Collections.unmodifiableList(ganks));
+            }
+        });
+    }
+
+    public void removeGank(@NonNull final String id) {
+        checkNotNull(id);
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                Integer day = builder.dayOfGank(id);
+                if (day == null) {
+                    return;
+                }
+                List<Gank> ganks = new ArrayList<>(builder.peekDay(day));
+                Iterator<Gank> it = ganks.iterator();
+                while (it.hasNext()) {
+                    if (it.next().getId().equals(id)) {
+                        it.remove();
+                    }
+                }
+                builder.putDay(day, Collections.unmodifiableList(ganks));
+            }
+        });
+    }
+
+    public void removeCompleted() {
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                for (Integer day : builder.cachedDays()) {
+                    List<Gank> ganks = new ArrayList<>(builder.peekDay(day));
+                    Iterator<Gank> it = ganks.iterator();
+                    boolean removed = false;
+                    while (it.hasNext()) {
+                        if (it.next().isCompleted()) {
+                            it.remove();
+                            removed = true;
+                        }
+                    }
+                    if (removed) {
+                        builder.putDay(day, Collections.unmodifiableList(ganks));
+                    }
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                builder.trimToSize(-1);
+                builder.pinned = null;
+                builder.fetchedAt.clear();
+                builder.changed = true;
+            }
+        });
+    }
+
+    /**
+     * Shrinks the LRU part of the cache, e.g. from {@code onTrimMemory}. The pinned day is kept.
+     */
+    public void trimToSize(final int maxSize) {
+        update(new Edit() {
+            @Override
+            void apply(Builder builder) {
+                builder.trimToSize(maxSize);
+            }
+        });
+    }
+
+    public int hitCount() {
+        return mHitCount.get();
+    }
+
+    public int missCount() {
+        return mMissCount.get();
+    }
+
+    public int evictionCount() {
+        return mEvictionCount.get();
+    }
+
+    /**
+     * @return size of the LRU part, in days or estimated bytes depending on how it was created
+     */
+    public int size() {
+        return mSnapshot.get().size;
+    }
+
+    public int maxSize() {
+        return mMaxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "GanksCache[size=" + size() + ",maxSize=" + mMaxSize + ",hits=" + hitCount()
+                + ",misses=" + missCount() + ",evictions=" + evictionCount() + "]";
+    }
+
+    /**
+     * Applies {@code edit} to the current snapshot and publishes the result, again and again until
+     * no other writer has published in between.
+     */
+    private void update(Edit edit) {
+        while (true) {
+            Snapshot current = mSnapshot.get();
+            Builder builder = new Builder(current);
+            edit.apply(builder);
+            if (!builder.changed) {
+                return;
+            }
+            if (mSnapshot.compareAndSet(current, builder.build())) {
+                mEvictionCount.addAndGet(builder.evictions);
+                return;
+            }
+        }
+    }
+
+    private int sizeOf(List<Gank> ganks) {
+        return mSizeInBytes ? estimateBytes(ganks) : 1;
+    }
+
+    static int estimateBytes(List<Gank> ganks) {
+        int bytes = 0;
+        for (Gank gank : ganks) {
+            bytes += GANK_OVERHEAD_BYTES + 2 * (length(gank.getId()) + length(gank.getTitle())
+                    + length(gank.getDescription()) + length(gank.getType()) + length(gank.getUrl()));
+        }
+        return bytes;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    /**
+     * A cached issue. Shared by all the snapshots it is part of; only its access stamp changes.
+     */
+    private static final class Day {
+        final List<Gank> ganks;
+        final int size;
+        final AtomicLong lastAccess;
+
+        Day(List<Gank> ganks, int size, long lastAccess) {
+            this.ganks = ganks;
+            this.size = size;
+            this.lastAccess = new AtomicLong(lastAccess);
+        }
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.<Integer, Day>emptyMap(), NO_DAY, null,
+                Collections.<Integer, Long>emptyMap(), 0);
+
+        final Map<Integer, Day> days;
+        final int pinnedDay;
+        @Nullable
+        final Day pinned;
+        final Map<Integer, Long> fetchedAt;
+        final int size;
+
+        final Map<String, Gank> ganksById;
+        final Map<String, Integer> dayOfGank;
+
+        Snapshot(Map<Integer, Day> days, int pinnedDay, @Nullable Day pinned, Map<Integer, Long> fetchedAt,
+                 int size) {
+            this.days = days;
+            this.pinnedDay = pinnedDay;
+            this.pinned = pinned;
+            this.fetchedAt = fetchedAt;
+            this.size = size;
+
+            // Rebuilt rather than patched: it is a few hundred entries, and writes are rare.
+            Map<String, Gank> ganksById = new HashMap<>();
+            Map<String, Integer> dayOfGank = new HashMap<>();
+            for (Map.Entry<Integer, Day> entry : days.entrySet()) {
+                index(entry.getKey(), entry.getValue(), ganksById, dayOfGank);
+            }
+            if (pinned != null) {
+                index(pinnedDay, pinned, ganksById, dayOfGank);
+            }
+            this.ganksById = Collections.unmodifiableMap(ganksById);
+            this.dayOfGank = Collections.unmodifiableMap(dayOfGank);
+        }
+
+        @Nullable
+        Day getDay(int day) {
+            return day == pinnedDay ? pinned : days.get(day);
+        }
+
+        private static void index(int day, Day cached, Map<String, Gank> ganksById, Map<String, Integer> dayOfGank) {
+            for (Gank gank : cached.ganks) {
+                ganksById.put(gank.getId(), gank);
+                dayOfGank.put(gank.getId(), day);
+            }
+        }
+    }
+
+    /**
+     * A mutable copy of a snapshot, private to one attempt of one writer.
+     */
+    private final class Builder {
+        final Map<Integer, Day> days;
+        int pinnedDay;
+        Day pinned;
+        final Map<Integer, Long> fetchedAt;
+        int size;
+
+        final Snapshot base;
+        int evictions;
+        boolean changed;
+
+        Builder(Snapshot base) {
+            this.base = base;
+            days = new HashMap<>(base.days);
+            pinnedDay = base.pinnedDay;
+            pinned = base.pinned;
+            fetchedAt = new HashMap<>(base.fetchedAt);
+            size = base.size;
+        }
+
+        boolean containsDay(int day) {
+            return day == pinnedDay ? pinned != null : days.containsKey(day);
+        }
+
+        List<Gank> peekDay(int day) {
+            return day == pinnedDay ? pinned.ganks : days.get(day).ganks;
+        }
+
+        /**
+         * Only valid until the first change, which is all the edits need.
+         */
+        @Nullable
+        Integer dayOfGank(String id) {
+            return base.dayOfGank.get(id);
+        }
+
+        List<Integer> cachedDays() {
+            List<Integer> cachedDays = new ArrayList<>(days.keySet());
+            if (pinned != null) {
+                cachedDays.add(pinnedDay);
+            }
+            return cachedDays;
+        }
+
+        void putDay(int day, List<Gank> ganks) {
+            changed = true;
+            Day cached = new Day(ganks, sizeOf(ganks), mClock.incrementAndGet());
+            if (day == pinnedDay) {
+                pinned = cached;
+                return;
+            }
+            Day old = days.put(day, cached);
+            if (old != null) {
+                size -= old.size;
+            }
+            size += cached.size;
+            // A single issue larger than the whole budget is evicted straight away.
+            trimToSize(mMaxSize);
+        }
+
+        void setPinnedDay(int day) {
+            if (day == pinnedDay) {
+                return;
+            }
+            changed = true;
+            int oldPinnedDay = pinnedDay;
+            Day oldPinned = pinned;
+
+            pinnedDay = day;
+            pinned = days.remove(day);
+            if (pinned != null) {
+                size -= pinned.size;
+            }
+            if (oldPinned != null) {
+                oldPinned.lastAccess.set(mClock.incrementAndGet());
+                days.put(oldPinnedDay, oldPinned);
+                size += oldPinned.size;
+                trimToSize(mMaxSize);
+            }
+        }
+
+        /**
+         * Evicts the least recently used days until the LRU part fits in {@code maxSize}.
+         */
+        void trimToSize(int maxSize) {
+            while (size > maxSize && !days.isEmpty()) {
+                Integer eldest = null;
+                long eldestAccess = Long.MAX_VALUE;
+                for (Map.Entry<Integer, Day> entry : days.entrySet()) {
+                    long access = entry.getValue().lastAccess.get();
+                    if (access < eldestAccess) {
+                        eldest = entry.getKey();
+                        eldestAccess = access;
+                    }
+                }
+                size -= days.remove(eldest).size;
+                fetchedAt.remove(eldest);
+                evictions++;
+                changed = true;
+            }
+        }
+
+        Snapshot build() {
+            return new Snapshot(Collections.unmodifiableMap(days), pinnedDay, pinned,
+                    Collections.unmodifiableMap(fetchedAt), size);
+        }
+    }
+
+    private abstract static class Edit {
+        abstract void apply(Builder builder);
+    }
+}
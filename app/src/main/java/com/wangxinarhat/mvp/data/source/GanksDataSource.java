@@ -35,8 +35,37 @@ public interface GanksDataSource {
 
     Observable<Gank> getGank(@NonNull String GankId,int position);
 
+    /**
+     * search ganks by their title, author and category, newest first
+     * @param limit results per page
+     * @param page 1-based
+     */
+    Observable<List<Gank>> searchGanks(@NonNull String query, int limit, int page);
+
+    /**
+     * ganks of one category, newest first
+     * @param category a {@link com.wangxinarhat.mvp.global.GankCategory} name, or
+     *                 {@link com.wangxinarhat.mvp.api.GankService#CATEGORY_ALL}
+     * @param pageSize ganks per page
+     * @param page 1-based
+     */
+    Observable<List<Gank>> getCategoryGanks(@NonNull String category, int pageSize, int page);
+
     void saveGank(@NonNull Gank Gank);
 
+    /**
+     * save a whole daily issue at once, keeping whether each gank was read
+     * @param date the day of the issue, which its ganks are stored under
+     * @param Ganks
+     */
+    void saveGanks(@NonNull Date date, @NonNull List<Gank> Ganks);
+
+    /**
+     * save a page of a category, keeping whether each gank was read
+     * @param Ganks
+     */
+    void saveCategoryGanks(@NonNull List<Gank> Ganks);
+
     /**
      * read
      * @param Gank
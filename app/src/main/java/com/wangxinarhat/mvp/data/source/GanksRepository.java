@@ -16,16 +16,22 @@
 
 package com.wangxinarhat.mvp.data.source;
 
+import android.content.ComponentCallbacks2;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.utils.DateUtil;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import rx.Observable;
 import rx.functions.Action0;
@@ -43,8 +49,32 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class GanksRepository implements GanksDataSource {
 
+    /**
+     * Default budget of the in-memory cache, roughly a couple of weeks of daily issues.
+     */
+    private static final int DEFAULT_CACHE_MAX_BYTES = 512 * 1024;
+
+    /**
+     * Today's issue can still grow during the day, so it is revalidated often.
+     */
+    private static final long TODAY_TTL_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * Past issues practically never change once published.
+     */
+    private static final long PAST_DAY_TTL_MILLIS = 24 * 60 * 60 * 1000;
+
     private static GanksRepository INSTANCE = null;
 
+    private static final Comparator<Gank> NEWEST_FIRST = new Comparator<Gank>() {
+        @Override
+        public int compare(Gank lhs, Gank rhs) {
+            long l = lhs.getPublishedAt() == null ? Long.MIN_VALUE : lhs.getPublishedAt().getTime();
+            long r = rhs.getPublishedAt() == null ? Long.MIN_VALUE : rhs.getPublishedAt().getTime();
+            return l < r ? 1 : (l == r ? 0 : -1);
+        }
+    };
+
     private final GanksDataSource mGanksRemoteDataSource;
 
     private final GanksDataSource mGanksLocalDataSource;
@@ -52,19 +82,33 @@ public class GanksRepository implements GanksDataSource {
     /**
      * This variable has package local visibility so it can be accessed from tests.
      */
-    Map<String, Gank> mCachedGanks;
+    final GanksCache mCache;
+
+    /**
+     * Counts calls to {@link #refreshGanks()}. The cache is invalid, forcing an update the next
+     * time data is requested, until a network load started after the last of them completes; a
+     * load that was already running when the cache was refreshed does not make it clean.
+     */
+    private final AtomicInteger mRefreshRequests = new AtomicInteger();
 
     /**
-     * Marks the cache as invalid, to force an update the next time data is requested. This variable
-     * has package local visibility so it can be accessed from tests.
+     * The value of {@link #mRefreshRequests} as of the last completed network load.
      */
-    boolean mCacheIsDirty = false;
+    private final AtomicInteger mRefreshesServed = new AtomicInteger();
+
+    /**
+     * When set, {@link #getGanks(Date)} emits whatever it has locally first and then, only if it
+     * differs, the list fetched from the network.
+     */
+    private volatile boolean mStaleWhileRevalidate = false;
 
     // Prevent direct instantiation.
     private GanksRepository(@NonNull GanksDataSource ganksRemoteDataSource,
-                            @NonNull GanksDataSource ganksLocalDataSource) {
+                            @NonNull GanksDataSource ganksLocalDataSource,
+                            @NonNull GanksCache cache) {
         mGanksRemoteDataSource = checkNotNull(ganksRemoteDataSource);
         mGanksLocalDataSource = checkNotNull(ganksLocalDataSource);
+        mCache = checkNotNull(cache);
     }
 
     /**
@@ -76,8 +120,23 @@ public class GanksRepository implements GanksDataSource {
      */
     public static GanksRepository getInstance(GanksDataSource ganksRemoteDataSource,
                                               GanksDataSource ganksLocalDataSource) {
+        return getInstance(ganksRemoteDataSource, ganksLocalDataSource,
+                GanksCache.withMaxBytes(DEFAULT_CACHE_MAX_BYTES));
+    }
+
+    /**
+     * Returns the single instance of this class, creating it with the given cache if necessary.
+     *
+     * @param ganksRemoteDataSource the backend data source
+     * @param ganksLocalDataSource  the device storage data source
+     * @param cache                 the in-memory cache, ignored if the instance already exists
+     * @return the {@link GanksRepository} instance
+     */
+    public static GanksRepository getInstance(GanksDataSource ganksRemoteDataSource,
+                                              GanksDataSource ganksLocalDataSource,
+                                              GanksCache cache) {
         if (INSTANCE == null) {
-            INSTANCE = new GanksRepository(ganksRemoteDataSource, ganksLocalDataSource);
+            INSTANCE = new GanksRepository(ganksRemoteDataSource, ganksLocalDataSource, cache);
         }
         return INSTANCE;
     }
@@ -90,52 +149,178 @@ public class GanksRepository implements GanksDataSource {
         INSTANCE = null;
     }
 
+    /**
+     * Shrinks the in-memory cache of the instance, if there is one, according to an
+     * {@link ComponentCallbacks2} trim level: halved while the app runs low, emptied
+     * (but for the pinned day) once it is in the background.
+     */
+    public static void trimMemory(int level) {
+        GanksRepository instance = INSTANCE;
+        if (instance == null) {
+            return;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            instance.mCache.trimToSize(0);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            instance.mCache.trimToSize(instance.mCache.maxSize() / 2);
+        }
+    }
+
+    /**
+     * Switches {@link #getGanks(Date)} to stale-while-revalidate: the cached or SQLite list is
+     * emitted straight away, then the network one if it is different. Past the per-day TTL the
+     * network is asked again even if the cache is not dirty.
+     */
+    public void setStaleWhileRevalidate(boolean enabled) {
+        mStaleWhileRevalidate = enabled;
+    }
+
     /**
      * Gets Ganks from cache, local data source (SQLite) or remote data source, whichever is
      * available first.
      */
     @Override
-    public Observable<List<Gank>> getGanks(Date date) {
+    public Observable<List<Gank>> getGanks(final Date date) {
+        final int day = DateUtil.toDayKey(date);
+        final boolean today = day == DateUtil.toDayKey(new Date(System.currentTimeMillis()));
+        if (today) {
+            // Today's issue is what the app opens on, never let older days push it out.
+            mCache.setPinnedDay(day);
+        }
+
         // Respond immediately with cache if available and not dirty
-        if (mCachedGanks != null && !mCacheIsDirty) {
-            return Observable.from(mCachedGanks.values()).toList();
-        } else if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
+        final int refreshRequests = mRefreshRequests.get();
+        final boolean cacheIsDirty = refreshRequests != mRefreshesServed.get();
+        List<Gank> cachedGanks = mCache.getDay(day);
+        if (cachedGanks != null && !cacheIsDirty
+                && (!mStaleWhileRevalidate || isFresh(day, today))) {
+            return Observable.just(cachedGanks);
         }
 
         Observable<List<Gank>> remoteGanks = mGanksRemoteDataSource
                 .getGanks(date)
-                .flatMap(new Func1<List<Gank>, Observable<Gank>>() {//Observable.flatMap()接收一个Observable的输出作为输入，同时输出另外一个Observable
+                .concatMap(new Func1<List<Gank>, Observable<List<Gank>>>() {
                     @Override
-                    public Observable<Gank> call(List<Gank> Ganks) {//接收一个集合作为输入，然后每次输出一个元素给subscriber
-                        return Observable.from(Ganks);
+                    public Observable<List<Gank>> call(List<Gank> ganks) {
+                        // One transaction and one SqlBrite notification for the whole issue.
+                        mGanksLocalDataSource.saveGanks(date, ganks);
+                        // Read back what was stored: it knows which ganks were read.
+                        return mGanksLocalDataSource.getGanks(date).first();
                     }
                 })
-                .doOnNext(new Action1<Gank>() {//允许我们在每次输出一个元素之前做一些额外的事情，调试、保存、缓存网络结果（直到doOnNext里的方法在新线程执行完毕，subscribe里的call才有机会在主线程执行）
+                .doOnNext(new Action1<List<Gank>>() {//允许我们在每次输出一个元素之前做一些额外的事情，调试、保存、缓存网络结果（直到doOnNext里的方法在新线程执行完毕，subscribe里的call才有机会在主线程执行）
                     @Override
-                    public void call(Gank Gank) {
-                        mGanksLocalDataSource.saveGank(Gank);
-                        mCachedGanks.put(Gank.getId(), Gank);
+                    public void call(List<Gank> ganks) {
+                        mCache.putDay(day, ganks);
+                        mCache.markFetched(day, System.currentTimeMillis());
                     }
                 })
-                .toList()//toList操作符让Observable将多项数据组合成一个List，然后调用一次onNext方法传递整个列表。
-                         //如果原始Observable没有发射任何数据就调用了onCompleted，toList返回的Observable会在调用onCompleted之前发射一个空列表
-                         //如果原始Observable调用了onError，toList返回的Observable会立即调用它的观察者的onError方法
                 .doOnCompleted(new Action0() {//操作符注册一个动作，当它产生的Observable正常终止调用onCompleted时会被调用。
                     @Override
                     public void call() {
-                        mCacheIsDirty = false;
+                        markRefreshesServed(refreshRequests);
                     }
                 });
-        if (mCacheIsDirty) {
+        if (mStaleWhileRevalidate) {
+            return staleWhileRevalidate(day, date, cachedGanks, remoteGanks);
+        } else if (cacheIsDirty) {
             return remoteGanks;
         } else {
             // Query the local storage if available. If not, query the network.
-            Observable<List<Gank>> localGanks = mGanksLocalDataSource.getGanks(date);
+            Observable<List<Gank>> localGanks = getLocalGanks(day, date);
             return Observable.concat(localGanks, remoteGanks).first();
         }
     }
 
+    /**
+     * The ganks SQLite has for that day, or nothing at all if it has none, so that a concat with
+     * the network falls through to it.
+     */
+    private Observable<List<Gank>> getLocalGanks(final int day, Date date) {
+        return mGanksLocalDataSource.getGanks(date)
+                .first()
+                .filter(new Func1<List<Gank>, Boolean>() {
+                    @Override
+                    public Boolean call(List<Gank> ganks) {
+                        return !ganks.isEmpty();
+                    }
+                })
+                .doOnNext(new Action1<List<Gank>>() {
+                    @Override
+                    public void call(List<Gank> ganks) {
+                        mCache.putDay(day, ganks);
+                    }
+                });
+    }
+
+    private Observable<List<Gank>> staleWhileRevalidate(int day, Date date, @Nullable List<Gank> cachedGanks,
+                                                        Observable<List<Gank>> remoteGanks) {
+        Observable<List<Gank>> staleGanks;
+        if (cachedGanks != null) {
+            staleGanks = Observable.just(cachedGanks);
+        } else {
+            // An empty table is not worth showing, wait for the network instead.
+            staleGanks = getLocalGanks(day, date);
+        }
+
+        final AtomicBoolean servedStale = new AtomicBoolean(false);
+        return Observable.concat(
+                staleGanks.doOnNext(new Action1<List<Gank>>() {
+                    @Override
+                    public void call(List<Gank> ganks) {
+                        servedStale.set(true);
+                    }
+                }),
+                remoteGanks.onErrorResumeNext(new Func1<Throwable, Observable<List<Gank>>>() {
+                    @Override
+                    public Observable<List<Gank>> call(Throwable throwable) {
+                        // Keep showing the stale list rather than an error when offline.
+                        return servedStale.get() ? Observable.<List<Gank>>empty()
+                                : Observable.<List<Gank>>error(throwable);
+                    }
+                }))
+                // Only re-emit when the network brought something different.
+                .distinctUntilChanged();
+    }
+
+    private boolean isFresh(int day, boolean today) {
+        long fetchedAt = mCache.fetchedAt(day);
+        long ttl = today ? TODAY_TTL_MILLIS : PAST_DAY_TTL_MILLIS;
+        return fetchedAt > 0 && System.currentTimeMillis() - fetchedAt < ttl;
+    }
+
+    /**
+     * Asks the backend for the page and stores what it answers, so the category can be read
+     * offline later. Without a connection, the page comes from what is stored instead, if there
+     * is anything there.
+     */
+    @Override
+    public Observable<List<Gank>> getCategoryGanks(@NonNull final String category, final int pageSize,
+                                                   final int page) {
+        checkNotNull(category);
+        return mGanksRemoteDataSource.getCategoryGanks(category, pageSize, page)
+                .doOnNext(new Action1<List<Gank>>() {
+                    @Override
+                    public void call(List<Gank> ganks) {
+                        saveCategoryGanks(ganks);
+                    }
+                })
+                .onErrorResumeNext(new Func1<Throwable, Observable<List<Gank>>>() {
+                    @Override
+                    public Observable<List<Gank>> call(final Throwable throwable) {
+                        return mGanksLocalDataSource.getCategoryGanks(category, pageSize, page)
+                                .first()
+                                .flatMap(new Func1<List<Gank>, Observable<List<Gank>>>() {
+                                    @Override
+                                    public Observable<List<Gank>> call(List<Gank> ganks) {
+                                        return ganks.isEmpty() ? Observable.<List<Gank>>error(throwable)
+                                                : Observable.just(ganks);
+                                    }
+                                });
+                    }
+                });
+    }
+
     @Override
     public void saveGank(@NonNull Gank Gank) {
         checkNotNull(Gank);
@@ -143,10 +328,30 @@ public class GanksRepository implements GanksDataSource {
         mGanksLocalDataSource.saveGank(Gank);
 
         // Do in memory cache update to keep the app UI up to date
-        if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
+        mCache.updateGank(Gank);
+    }
+
+    @Override
+    public void saveGanks(@NonNull Date date, @NonNull List<Gank> Ganks) {
+        checkNotNull(date);
+        checkNotNull(Ganks);
+        mGanksRemoteDataSource.saveGanks(date, Ganks);
+        mGanksLocalDataSource.saveGanks(date, Ganks);
+
+        // Do in memory cache update to keep the app UI up to date
+        for (Gank gank : Ganks) {
+            mCache.updateGank(gank);
         }
-        mCachedGanks.put(Gank.getId(), Gank);
+    }
+
+    /**
+     * Only stored: the days in memory are issues, a category page does not change them.
+     */
+    @Override
+    public void saveCategoryGanks(@NonNull List<Gank> Ganks) {
+        checkNotNull(Ganks);
+        mGanksRemoteDataSource.saveCategoryGanks(Ganks);
+        mGanksLocalDataSource.saveCategoryGanks(Ganks);
     }
 
     @Override
@@ -155,13 +360,12 @@ public class GanksRepository implements GanksDataSource {
         mGanksRemoteDataSource.completeGank(Gank);
         mGanksLocalDataSource.completeGank(Gank);
 
-        Gank completedGank = new Gank(Gank.getTitle(), Gank.getDescription(), Gank.getId(), true);
+        // Copy so type, url and dates survive, the list holders need them.
+        Gank completedGank = Gank.clone();
+        completedGank.setCompleted(true);
 
         // Do in memory cache update to keep the app UI up to date
-        if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
-        }
-        mCachedGanks.put(Gank.getId(), completedGank);
+        mCache.updateGank(completedGank);
     }
 
     @Override
@@ -179,13 +383,11 @@ public class GanksRepository implements GanksDataSource {
         mGanksRemoteDataSource.activateGank(Gank);
         mGanksLocalDataSource.activateGank(Gank);
 
-        Gank activeGank = new Gank(Gank.getTitle(), Gank.getDescription(), Gank.getId());
+        Gank activeGank = Gank.clone();
+        activeGank.setCompleted(false);
 
         // Do in memory cache update to keep the app UI up to date
-        if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
-        }
-        mCachedGanks.put(Gank.getId(), activeGank);
+        mCache.updateGank(activeGank);
     }
 
     @Override
@@ -203,16 +405,7 @@ public class GanksRepository implements GanksDataSource {
         mGanksLocalDataSource.clearCompletedGanks();
 
         // Do in memory cache update to keep the app UI up to date
-        if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
-        }
-        Iterator<Map.Entry<String, Gank>> it = mCachedGanks.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Gank> entry = it.next();
-            if (entry.getValue().isCompleted()) {
-                it.remove();
-            }
-        }
+        mCache.removeCompleted();
     }
 
     /**
@@ -234,29 +427,85 @@ public class GanksRepository implements GanksDataSource {
 
         // Is the Gank in the local data source? If not, query the network.
         Observable<Gank> localGank = mGanksLocalDataSource
-                .getGank(GankId,position)
-                .doOnNext(new Action1<Gank>() {
-                    @Override
-                    public void call(Gank Gank) {
-                        mCachedGanks.put(GankId, Gank);
-                    }
-                });
+                .getGank(GankId,position);
         Observable<Gank> remoteGank = mGanksRemoteDataSource
                 .getGank(GankId,position)
                 .doOnNext(new Action1<Gank>() {
                     @Override
                     public void call(Gank Gank) {
                         mGanksLocalDataSource.saveGank(Gank);
-                        mCachedGanks.put(Gank.getId(), Gank);
+                        mCache.updateGank(Gank);
                     }
                 });
 
         return Observable.concat(localGank, remoteGank).first();
     }
 
+    /**
+     * Emits what is stored on the device first, if anything, then that merged with what the
+     * backend found. The backend's error comes through after the local results, so that callers
+     * can tell a merged list from the local one alone. Results are not cached in memory: SQLite
+     * answers them from its full-text index.
+     */
+    @Override
+    public Observable<List<Gank>> searchGanks(@NonNull String query, int limit, int page) {
+        checkNotNull(query);
+        final Observable<List<Gank>> remoteGanks = mGanksRemoteDataSource.searchGanks(query, limit, page);
+        return mGanksLocalDataSource.searchGanks(query, limit, page)
+                .first()
+                .concatMap(new Func1<List<Gank>, Observable<List<Gank>>>() {
+                    @Override
+                    public Observable<List<Gank>> call(final List<Gank> localGanks) {
+                        Observable<List<Gank>> merged = remoteGanks
+                                .map(new Func1<List<Gank>, List<Gank>>() {
+                                    @Override
+                                    public List<Gank> call(List<Gank> ganks) {
+                                        return mergeSearchResults(localGanks, ganks);
+                                    }
+                                });
+                        return localGanks.isEmpty() ? merged : Observable.just(localGanks).concatWith(merged);
+                    }
+                });
+    }
+
+    /**
+     * Local results win over remote ones with the same id, they know what was read. Newest first.
+     */
+    private static List<Gank> mergeSearchResults(List<Gank> localGanks, List<Gank> remoteGanks) {
+        Map<String, Gank> byId = new LinkedHashMap<>();
+        for (Gank gank : localGanks) {
+            byId.put(gank.getId(), gank);
+        }
+        for (Gank gank : remoteGanks) {
+            if (!byId.containsKey(gank.getId())) {
+                byId.put(gank.getId(), gank);
+            }
+        }
+        List<Gank> merged = new ArrayList<>(byId.values());
+        Collections.sort(merged, NEWEST_FIRST);
+        return merged;
+    }
+
     @Override
     public void refreshGanks() {
-        mCacheIsDirty = true;
+        mRefreshRequests.incrementAndGet();
+    }
+
+    /**
+     * @return true if a refresh was asked for and no network load has served it yet
+     */
+    boolean isCacheDirty() {
+        return mRefreshRequests.get() != mRefreshesServed.get();
+    }
+
+    private void markRefreshesServed(int refreshRequests) {
+        while (true) {
+            int served = mRefreshesServed.get();
+            // Newer loads may have completed first.
+            if (served - refreshRequests >= 0 || mRefreshesServed.compareAndSet(served, refreshRequests)) {
+                return;
+            }
+        }
     }
 
     @Override
@@ -264,10 +513,7 @@ public class GanksRepository implements GanksDataSource {
         mGanksRemoteDataSource.deleteAllGanks();
         mGanksLocalDataSource.deleteAllGanks();
 
-        if (mCachedGanks == null) {
-            mCachedGanks = new LinkedHashMap<>();
-        }
-        mCachedGanks.clear();
+        mCache.clear();
     }
 
     @Override
@@ -275,16 +521,19 @@ public class GanksRepository implements GanksDataSource {
         mGanksRemoteDataSource.deleteGank(checkNotNull(GankId));
         mGanksLocalDataSource.deleteGank(checkNotNull(GankId));
 
-        mCachedGanks.remove(GankId);
+        mCache.removeGank(GankId);
     }
 
     @Nullable
     private Gank getGankWithId(@NonNull String id) {
         checkNotNull(id);
-        if (mCachedGanks == null || mCachedGanks.isEmpty()) {
-            return null;
-        } else {
-            return mCachedGanks.get(id);
-        }
+        return mCache.getGank(id);
+    }
+
+    /**
+     * @return the in-memory cache, to read its hit/miss/eviction counters or trim it
+     */
+    public GanksCache getCache() {
+        return mCache;
     }
 }
@@ -0,0 +1,303 @@
+package com.wangxinarhat.mvp.data.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import rx.Observable;
+import rx.Observer;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Func1;
+import rx.subscriptions.SerialSubscription;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An endless list read page by page from a {@link PageLoader}, 1-based.
+ * <p>
+ * Pages are asked for ahead of time: once the user gets within {@code prefetchDistance} items of
+ * the end, the next page is loaded. A page is only ever loaded once at a time, and once appended
+ * it is never loaded again until {@link #refresh()}. Pages that arrive out of order wait until
+ * those before them are in. A page shorter than the page size is the last one.
+ * <p>
+ * Items are keyed, and an item already in the list is not added again: backends page by offset,
+ * so anything published while the user scrolls pushes the last item of a page into the next one.
+ * <p>
+ * Not thread safe: call it and receive its callbacks on one thread, the one of the scheduler it
+ * was given.
+ *
+ * @param <T> items of the feed
+ */
+public class PagedFeed<T> {
+
+    public interface PageLoader<T> {
+
+        /**
+         * @param page 1-based
+         * @return the items of {@code page}, on any thread
+         */
+        Observable<List<T>> loadPage(int page);
+    }
+
+    public interface Listener<T> {
+
+        /**
+         * the items were replaced, by the first page or a refresh
+         */
+        void onItemsReset(List<T> items);
+
+        /**
+         * {@code count} items were added at {@code start}
+         */
+        void onItemsAppended(List<T> items, int start, int count);
+
+        void onLoadingChanged(boolean loading);
+
+        void onPageError(int page, Throwable e);
+    }
+
+    private final PageLoader<T> mLoader;
+
+    private final Func1<T, String> mKeyOf;
+
+    private final int mPageSize;
+
+    private final int mPrefetchDistance;
+
+    private final Scheduler mScheduler;
+
+    private final List<T> mItems = new ArrayList<>();
+
+    private final List<T> mReadOnlyItems = Collections.unmodifiableList(mItems);
+
+    private final Set<String> mKeys = new HashSet<>();
+
+    /**
+     * Pages that came in before the one they follow.
+     */
+    private final TreeMap<Integer, List<T>> mWaitingPages = new TreeMap<>();
+
+    private final Map<Integer, Subscription> mInFlight = new HashMap<>();
+
+    @Nullable
+    private Listener<T> mListener;
+
+    /**
+     * The next page to append.
+     */
+    private int mNextPage = 1;
+
+    /**
+     * Set when a page shorter than the page size was appended.
+     */
+    private boolean mEnded;
+
+    /**
+     * The page that failed last; not asked for again until {@link #retry()}.
+     */
+    private int mFailedPage;
+
+    /**
+     * Bumped by {@link #cancel()}, so pages already on their way to the scheduler are dropped.
+     */
+    private int mGeneration;
+
+    /**
+     * @param keyOf            what identifies an item across pages
+     * @param prefetchDistance how many items before the end the next page is asked for
+     * @param scheduler        where pages are delivered, and the feed used
+     */
+    public PagedFeed(@NonNull PageLoader<T> loader, @NonNull Func1<T, String> keyOf, int pageSize,
+                     int prefetchDistance, @NonNull Scheduler scheduler) {
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        checkArgument(prefetchDistance >= 0, "prefetchDistance cannot be negative");
+        mLoader = checkNotNull(loader);
+        mKeyOf = checkNotNull(keyOf);
+        mPageSize = pageSize;
+        mPrefetchDistance = prefetchDistance;
+        mScheduler = checkNotNull(scheduler);
+    }
+
+    /**
+     * Attaches {@code listener}, null detaches. Pages keep loading while detached.
+     */
+    public void setListener(@Nullable Listener<T> listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @return the items so far, a read-only view that follows the feed
+     */
+    public List<T> getItems() {
+        return mReadOnlyItems;
+    }
+
+    public boolean isEnded() {
+        return mEnded;
+    }
+
+    public boolean isLoading() {
+        return !mInFlight.isEmpty();
+    }
+
+    /**
+     * Loads the first page if there is nothing yet.
+     */
+    public void start() {
+        if (mItems.isEmpty() && !mEnded && mFailedPage == 0) {
+            load(mNextPage);
+        }
+    }
+
+    /**
+     * The item at {@code position} is on screen; loads the pages that cover the next
+     * {@code prefetchDistance} items, if they are not in yet.
+     */
+    public void onItemVisible(int position) {
+        if (mEnded || mFailedPage != 0) {
+            return;
+        }
+        int missing = position + 1 + mPrefetchDistance - mItems.size();
+        for (int page = mNextPage; missing > 0; page++, missing -= mPageSize) {
+            load(page);
+        }
+    }
+
+    /**
+     * Asks for the page that failed again.
+     */
+    public void retry() {
+        if (mFailedPage != 0) {
+            int page = mFailedPage;
+            mFailedPage = 0;
+            load(page);
+        }
+    }
+
+    /**
+     * Starts over from the first page. What is shown stays until that page is in.
+     */
+    public void refresh() {
+        cancel();
+        mWaitingPages.clear();
+        mNextPage = 1;
+        mEnded = false;
+        mFailedPage = 0;
+        load(1);
+    }
+
+    /**
+     * Cancels the pages being loaded. The feed can still be used afterwards.
+     */
+    public void cancel() {
+        mGeneration++;
+        boolean wasLoading = isLoading();
+        for (Subscription subscription : mInFlight.values()) {
+            subscription.unsubscribe();
+        }
+        mInFlight.clear();
+        if (wasLoading && mListener != null) {
+            mListener.onLoadingChanged(false);
+        }
+    }
+
+    private void load(final int page) {
+        if (mInFlight.containsKey(page) || mWaitingPages.containsKey(page)) {
+            return;
+        }
+        boolean wasLoading = isLoading();
+        final int generation = mGeneration;
+        // Put in place first: the loader may answer right away, on this thread.
+        SerialSubscription subscription = new SerialSubscription();
+        mInFlight.put(page, subscription);
+        if (!wasLoading && mListener != null) {
+            mListener.onLoadingChanged(true);
+        }
+        subscription.set(mLoader.loadPage(page)
+                .lastOrDefault(Collections.<T>emptyList())
+                .observeOn(mScheduler)
+                .subscribe(new Observer<List<T>>() {
+                    @Override
+                    public void onCompleted() {
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        if (generation == mGeneration) {
+                            onPageFailed(page, e);
+                        }
+                    }
+
+                    @Override
+                    public void onNext(List<T> items) {
+                        if (generation == mGeneration) {
+                            onPageLoaded(page, items);
+                        }
+                    }
+                }));
+    }
+
+    private void onPageLoaded(int page, List<T> items) {
+        finished(page);
+        if (page < mNextPage || mEnded) {
+            // Already appended, or past the end.
+            return;
+        }
+        mWaitingPages.put(page, items);
+        boolean reset = false;
+        int start = mItems.size();
+        while (!mWaitingPages.isEmpty() && mWaitingPages.firstKey() == mNextPage) {
+            List<T> next = mWaitingPages.pollFirstEntry().getValue();
+            if (mNextPage == 1) {
+                mItems.clear();
+                mKeys.clear();
+                reset = true;
+                start = 0;
+            }
+            for (T item : next) {
+                if (mKeys.add(mKeyOf.call(item))) {
+                    mItems.add(item);
+                }
+            }
+            mNextPage++;
+            if (next.size() < mPageSize) {
+                mEnded = true;
+                mWaitingPages.clear();
+                break;
+            }
+        }
+        if (mListener == null) {
+            return;
+        }
+        if (reset) {
+            mListener.onItemsReset(mReadOnlyItems);
+        } else if (mItems.size() > start) {
+            mListener.onItemsAppended(mReadOnlyItems, start, mItems.size() - start);
+        }
+    }
+
+    private void onPageFailed(int page, Throwable e) {
+        finished(page);
+        mFailedPage = page;
+        if (mListener != null) {
+            mListener.onPageError(page, e);
+        }
+    }
+
+    private void finished(int page) {
+        mInFlight.remove(page);
+        if (!isLoading() && mListener != null) {
+            mListener.onLoadingChanged(false);
+        }
+    }
+}
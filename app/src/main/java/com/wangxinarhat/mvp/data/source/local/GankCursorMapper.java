@@ -0,0 +1,117 @@
+package com.wangxinarhat.mvp.data.source.local;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rx.functions.Func1;
+
+import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankEntry;
+
+/**
+ * Maps gank rows to {@link Gank}s, resolving column indexes once per {@link Cursor} instead of
+ * once per column per row.
+ * <p>
+ * Indexes are cached by projection, so re-runs of the same query (SqlBrite re-queries on every
+ * table change) do not resolve them again either. Columns the projection does not have are left
+ * empty, and {@link #fill(Cursor, Gank)} lets callers reuse one {@link Gank} across rows.
+ */
+public class GankCursorMapper implements Func1<Cursor, Gank> {
+
+    static final String[] COLUMNS = {
+            GankEntry.COLUMN_NAME_ENTRY_ID,
+            GankEntry.COLUMN_NAME_TITLE,
+            GankEntry.COLUMN_NAME_DESCRIPTION,
+            GankEntry.COLUMN_NAME_TYPE,
+            GankEntry.COLUMN_NAME_URL,
+            GankEntry.COLUMN_NAME_PUBLISHED_AT,
+            GankEntry.COLUMN_NAME_CREATED_AT,
+            GankEntry.COLUMN_NAME_UPDATED_AT,
+            GankEntry.COLUMN_NAME_COMPLETED
+    };
+
+    // Positions in COLUMNS
+    private static final int ENTRY_ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int TYPE = 3;
+    private static final int URL = 4;
+    private static final int PUBLISHED_AT = 5;
+    private static final int CREATED_AT = 6;
+    private static final int UPDATED_AT = 7;
+    private static final int COMPLETED = 8;
+
+    private final ConcurrentHashMap<List<String>, int[]> mIndexesByProjection = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes of the last cursor seen. Replaced as a whole, so queries mapping on different
+     * threads at the same time each read a consistent pair.
+     */
+    private volatile CursorIndexes mLastIndexes;
+
+    @Override
+    public Gank call(Cursor c) {
+        return fill(c, new Gank());
+    }
+
+    /**
+     * Reads the current row of {@code c} into {@code gank}.
+     *
+     * @return {@code gank}
+     */
+    public Gank fill(@NonNull Cursor c, @NonNull Gank gank) {
+        int[] indexes = indexesFor(c);
+        gank.setId(getString(c, indexes[ENTRY_ID]));
+        gank.setTitle(getString(c, indexes[TITLE]));
+        gank.setDescription(getString(c, indexes[DESCRIPTION]));
+        gank.setType(getString(c, indexes[TYPE]));
+        gank.setUrl(getString(c, indexes[URL]));
+        gank.setPublishedAt(getDate(c, indexes[PUBLISHED_AT]));
+        gank.setCreatedAt(getDate(c, indexes[CREATED_AT]));
+        gank.setUpdatedAt(getDate(c, indexes[UPDATED_AT]));
+        gank.setCompleted(indexes[COMPLETED] >= 0 && c.getInt(indexes[COMPLETED]) == 1);
+        return gank;
+    }
+
+    private int[] indexesFor(Cursor c) {
+        CursorIndexes last = mLastIndexes;
+        if (last != null && last.cursor == c) {
+            return last.indexes;
+        }
+        List<String> projection = Arrays.asList(c.getColumnNames());
+        int[] indexes = mIndexesByProjection.get(projection);
+        if (indexes == null) {
+            indexes = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                indexes[i] = c.getColumnIndex(COLUMNS[i]);
+            }
+            mIndexesByProjection.put(projection, indexes);
+        }
+        mLastIndexes = new CursorIndexes(c, indexes);
+        return indexes;
+    }
+
+    private static String getString(Cursor c, int index) {
+        return index < 0 ? null : c.getString(index);
+    }
+
+    private static Date getDate(Cursor c, int index) {
+        return index < 0 || c.isNull(index) ? null : new Date(c.getLong(index));
+    }
+
+    private static class CursorIndexes {
+        final Cursor cursor;
+        final int[] indexes;
+
+        CursorIndexes(Cursor cursor, int[] indexes) {
+            this.cursor = cursor;
+            this.indexes = indexes;
+        }
+    }
+}
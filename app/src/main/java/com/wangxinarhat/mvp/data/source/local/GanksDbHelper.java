@@ -17,42 +17,196 @@
 package com.wangxinarhat.mvp.data.source.local;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankEntry;
+import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankSearchEntry;
 
 public class GanksDbHelper extends SQLiteOpenHelper {
-    public static final int DATABASE_VERSION = 1;
+    public static final int DATABASE_VERSION = 5;
 
     public static final String DATABASE_NAME = "Ganks.db";
 
     private static final String TEXT_TYPE = " TEXT";
 
+    private static final String INTEGER_TYPE = " INTEGER";
+
     private static final String BOOLEAN_TYPE = " INTEGER";
 
     private static final String COMMA_SEP = ",";
 
     private static final String SQL_CREATE_ENTRIES =
-            "CREATE TABLE " + GanksPersistenceContract.GankEntry.TABLE_NAME + " (" +
-                    GanksPersistenceContract.GankEntry._ID + TEXT_TYPE + " PRIMARY KEY," +
-                    GanksPersistenceContract.GankEntry.COLUMN_NAME_ENTRY_ID + TEXT_TYPE + COMMA_SEP +
-                    GanksPersistenceContract.GankEntry.COLUMN_NAME_TITLE + TEXT_TYPE + COMMA_SEP +
-                    GanksPersistenceContract.GankEntry.COLUMN_NAME_DESCRIPTION + TEXT_TYPE + COMMA_SEP +
-                    GanksPersistenceContract.GankEntry.COLUMN_NAME_COMPLETED + BOOLEAN_TYPE +
+            "CREATE TABLE " + GankEntry.TABLE_NAME + " (" +
+                    GankEntry._ID + INTEGER_TYPE + " PRIMARY KEY," +
+                    GankEntry.COLUMN_NAME_ENTRY_ID + TEXT_TYPE + " NOT NULL" + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_TITLE + TEXT_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_DESCRIPTION + TEXT_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_TYPE + TEXT_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_URL + TEXT_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_PUBLISHED_AT + INTEGER_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_PUBLISHED_DAY + INTEGER_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_ISSUE_POSITION + INTEGER_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_CREATED_AT + INTEGER_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_UPDATED_AT + INTEGER_TYPE + COMMA_SEP +
+                    GankEntry.COLUMN_NAME_COMPLETED + BOOLEAN_TYPE +
             " )";
 
+    private static final String SQL_CREATE_INDEX_ENTRY_ID =
+            "CREATE UNIQUE INDEX " + GankEntry.INDEX_ENTRY_ID + " ON " + GankEntry.TABLE_NAME +
+                    " (" + GankEntry.COLUMN_NAME_ENTRY_ID + ")";
+
+    private static final String SQL_CREATE_INDEX_PUBLISHED_DAY_TYPE =
+            "CREATE INDEX " + GankEntry.INDEX_PUBLISHED_DAY_TYPE + " ON " + GankEntry.TABLE_NAME +
+                    " (" + GankEntry.COLUMN_NAME_PUBLISHED_DAY + COMMA_SEP + GankEntry.COLUMN_NAME_TYPE + ")";
+
+    /**
+     * Category pages, newest first. The index ends in the rowid, so ties on published_at come out
+     * in _id order too and neither category query needs a sort.
+     */
+    private static final String SQL_CREATE_INDEX_TYPE_PUBLISHED_AT =
+            "CREATE INDEX " + GankEntry.INDEX_TYPE_PUBLISHED_AT + " ON " + GankEntry.TABLE_NAME +
+                    " (" + GankEntry.COLUMN_NAME_TYPE + COMMA_SEP + GankEntry.COLUMN_NAME_PUBLISHED_AT + ")";
+
+    /**
+     * Pages of every category at once.
+     */
+    private static final String SQL_CREATE_INDEX_PUBLISHED_AT =
+            "CREATE INDEX " + GankEntry.INDEX_PUBLISHED_AT + " ON " + GankEntry.TABLE_NAME +
+                    " (" + GankEntry.COLUMN_NAME_PUBLISHED_AT + ")";
+
+    private static final String SQL_CREATE_SEARCH =
+            "CREATE VIRTUAL TABLE " + GankSearchEntry.TABLE_NAME + " USING fts4(" +
+                    GankSearchEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                    GankSearchEntry.COLUMN_NAME_DESCRIPTION + COMMA_SEP +
+                    GankSearchEntry.COLUMN_NAME_TYPE +
+            ")";
+
+    /**
+     * Documents are written by {@link GanksLocalDataSource}, which tokenizes them, but removed
+     * here so that no delete path can leave one behind.
+     */
+    private static final String SQL_CREATE_TRIGGER_DELETE =
+            "CREATE TRIGGER " + GankSearchEntry.TRIGGER_DELETE +
+                    " AFTER DELETE ON " + GankEntry.TABLE_NAME + " BEGIN" +
+                    " DELETE FROM " + GankSearchEntry.TABLE_NAME +
+                    " WHERE " + GankSearchEntry.COLUMN_NAME_DOCID + " = old." + GankEntry._ID + ";" +
+                    " END";
+
+    /**
+     * INSERT OR REPLACE deletes the row it replaces without firing delete triggers (recursive
+     * triggers are off), so the replaced row's document is dropped before the insert instead.
+     */
+    private static final String SQL_CREATE_TRIGGER_REPLACE =
+            "CREATE TRIGGER " + GankSearchEntry.TRIGGER_REPLACE +
+                    " BEFORE INSERT ON " + GankEntry.TABLE_NAME + " BEGIN" +
+                    " DELETE FROM " + GankSearchEntry.TABLE_NAME +
+                    " WHERE " + GankSearchEntry.COLUMN_NAME_DOCID + " IN (SELECT " + GankEntry._ID +
+                    " FROM " + GankEntry.TABLE_NAME +
+                    " WHERE " + GankEntry.COLUMN_NAME_ENTRY_ID + " = new." + GankEntry.COLUMN_NAME_ENTRY_ID + ");" +
+                    " END";
+
     public GanksDbHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
 
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(SQL_CREATE_ENTRIES);
+        db.execSQL(SQL_CREATE_INDEX_ENTRY_ID);
+        db.execSQL(SQL_CREATE_INDEX_PUBLISHED_DAY_TYPE);
+        createCategoryIndexes(db);
+        createSearch(db);
     }
 
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Not required as at version 1
+        // Runs inside the transaction SQLiteOpenHelper opens for the upgrade.
+        if (oldVersion < 2) {
+            upgradeToVersion2(db);
+            return;
+        }
+        // Version 2 recreates the table, search and category indexes included.
+        if (oldVersion < 3) {
+            upgradeToVersion3(db);
+        }
+        if (oldVersion < 4) {
+            createCategoryIndexes(db);
+        }
+        if (oldVersion < 5) {
+            upgradeToVersion5(db);
+        }
     }
 
     public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Not required as at version 1
+        // Everything here can be fetched again, start over with the schema we know.
+        db.execSQL("DROP TABLE IF EXISTS " + GankEntry.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + GankSearchEntry.TABLE_NAME);
+        onCreate(db);
+    }
+
+    /**
+     * Version 1 only kept id, title, description and the completed flag, with no constraint on
+     * the entry id. Keep the read state of what we had: the rows come out of every day until a
+     * fetch of their issue fills in the rest, and {@link GanksLocalDataSource#saveGanks} keeps
+     * them read when it does.
+     */
+    private void upgradeToVersion2(SQLiteDatabase db) {
+        String oldTable = GankEntry.TABLE_NAME + "_v1";
+        db.execSQL("ALTER TABLE " + GankEntry.TABLE_NAME + " RENAME TO " + oldTable);
+        onCreate(db);
+        String columns = GankEntry.COLUMN_NAME_ENTRY_ID + COMMA_SEP +
+                GankEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                GankEntry.COLUMN_NAME_DESCRIPTION + COMMA_SEP +
+                GankEntry.COLUMN_NAME_COMPLETED;
+        db.execSQL("INSERT OR REPLACE INTO " + GankEntry.TABLE_NAME + " (" + columns + ")" +
+                " SELECT " + columns + " FROM " + oldTable +
+                " WHERE " + GankEntry.COLUMN_NAME_ENTRY_ID + " IS NOT NULL");
+        db.execSQL("DROP TABLE " + oldTable);
+        indexAll(db);
+    }
+
+    /**
+     * Adds search over what is already stored.
+     */
+    private void upgradeToVersion3(SQLiteDatabase db) {
+        createSearch(db);
+        indexAll(db);
+    }
+
+    /**
+     * Adds the position of each gank in its issue. Issues stored before keep the order they were
+     * saved in until they are saved again.
+     */
+    private void upgradeToVersion5(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + GankEntry.TABLE_NAME + " ADD COLUMN " +
+                GankEntry.COLUMN_NAME_ISSUE_POSITION + INTEGER_TYPE);
+    }
+
+    private static void createCategoryIndexes(SQLiteDatabase db) {
+        db.execSQL(SQL_CREATE_INDEX_TYPE_PUBLISHED_AT);
+        db.execSQL(SQL_CREATE_INDEX_PUBLISHED_AT);
+    }
+
+    private static void createSearch(SQLiteDatabase db) {
+        db.execSQL(SQL_CREATE_SEARCH);
+        db.execSQL(SQL_CREATE_TRIGGER_DELETE);
+        db.execSQL(SQL_CREATE_TRIGGER_REPLACE);
+    }
+
+    private static void indexAll(SQLiteDatabase db) {
+        Cursor c = db.query(GankEntry.TABLE_NAME, GanksLocalDataSource.SEARCH_SOURCE_COLUMNS,
+                null, null, null, null, null);
+        SQLiteStatement statement = db.compileStatement(GanksLocalDataSource.SQL_INSERT_SEARCH);
+        try {
+            while (c.moveToNext()) {
+                GanksLocalDataSource.bindSearch(statement, c.getLong(0), c.getString(1), c.getString(2),
+                        c.getString(3));
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+            c.close();
+        }
     }
 }
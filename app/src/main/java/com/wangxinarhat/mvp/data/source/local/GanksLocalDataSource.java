@@ -20,14 +20,18 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
 import com.squareup.sqlbrite.BriteDatabase;
 import com.squareup.sqlbrite.SqlBrite;
+import com.wangxinarhat.mvp.api.GankService;
 import com.wangxinarhat.mvp.data.Gank;
 import com.wangxinarhat.mvp.data.source.GanksDataSource;
+import com.wangxinarhat.mvp.utils.DateUtil;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -35,8 +39,10 @@ import rx.Observable;
 import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankEntry;
+import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.GankSearchEntry;
 
 
 /**
@@ -44,28 +50,114 @@ import static com.wangxinarhat.mvp.data.source.local.GanksPersistenceContract.Ga
  */
 public class GanksLocalDataSource implements GanksDataSource {
 
+    /**
+     * Every column the mapper knows about.
+     */
+    private static final String[] PROJECTION = GankCursorMapper.COLUMNS;
+
+    /**
+     * The _id of the row of an entry id, -1 if there is none.
+     */
+    private static final String SQL_SELECT_ROW_ID = String.format(
+            "SELECT COALESCE((SELECT %s FROM %s WHERE %s = ?), -1)",
+            GankEntry._ID, GankEntry.TABLE_NAME, GankEntry.COLUMN_NAME_ENTRY_ID);
+
+    private static final String SQL_INSERT_GANK = String.format(
+            "INSERT INTO %s (%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s) VALUES (?,?,?,?,?,?,?,?,?,?,?)",
+            GankEntry.TABLE_NAME,
+            GankEntry.COLUMN_NAME_ENTRY_ID, GankEntry.COLUMN_NAME_TITLE,
+            GankEntry.COLUMN_NAME_DESCRIPTION, GankEntry.COLUMN_NAME_TYPE, GankEntry.COLUMN_NAME_URL,
+            GankEntry.COLUMN_NAME_PUBLISHED_AT, GankEntry.COLUMN_NAME_PUBLISHED_DAY,
+            GankEntry.COLUMN_NAME_ISSUE_POSITION, GankEntry.COLUMN_NAME_CREATED_AT,
+            GankEntry.COLUMN_NAME_UPDATED_AT, GankEntry.COLUMN_NAME_COMPLETED);
+
+    /**
+     * Refreshes a stored row from the backend's copy. The row keeps its _id and completed flag,
+     * and its day and position in the issue unless new ones are given.
+     */
+    private static final String SQL_UPDATE_GANK = String.format(
+            "UPDATE %s SET %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?," +
+                    " %s = COALESCE(?, %s), %s = COALESCE(?, %s) WHERE %s = ?",
+            GankEntry.TABLE_NAME,
+            GankEntry.COLUMN_NAME_TITLE, GankEntry.COLUMN_NAME_DESCRIPTION, GankEntry.COLUMN_NAME_TYPE,
+            GankEntry.COLUMN_NAME_URL, GankEntry.COLUMN_NAME_PUBLISHED_AT, GankEntry.COLUMN_NAME_CREATED_AT,
+            GankEntry.COLUMN_NAME_UPDATED_AT,
+            GankEntry.COLUMN_NAME_PUBLISHED_DAY, GankEntry.COLUMN_NAME_PUBLISHED_DAY,
+            GankEntry.COLUMN_NAME_ISSUE_POSITION, GankEntry.COLUMN_NAME_ISSUE_POSITION,
+            GankEntry._ID);
+
+    /**
+     * Rows of one day in the display order of the issue. Rows stored before positions were kept
+     * have none and come first, in the order they were saved.
+     */
+    private static final String SQL_SELECT_DAY = String.format(
+            "SELECT %s FROM %s WHERE %s = ? ORDER BY %s, %s",
+            TextUtils.join(",", PROJECTION), GankEntry.TABLE_NAME,
+            GankEntry.COLUMN_NAME_PUBLISHED_DAY, GankEntry.COLUMN_NAME_ISSUE_POSITION, GankEntry._ID);
+
+    private static final String SQL_SELECT_ONE = String.format("SELECT %s FROM %s WHERE %s = ?",
+            TextUtils.join(",", PROJECTION), GankEntry.TABLE_NAME, GankEntry.COLUMN_NAME_ENTRY_ID);
+
+    private static final String SELECTION_ENTRY_ID = GankEntry.COLUMN_NAME_ENTRY_ID + " = ?";
+
+    /**
+     * What the search table is built from, in the order {@link #bindSearch} takes it.
+     */
+    static final String[] SEARCH_SOURCE_COLUMNS = {
+            GankEntry._ID,
+            GankEntry.COLUMN_NAME_TITLE,
+            GankEntry.COLUMN_NAME_DESCRIPTION,
+            GankEntry.COLUMN_NAME_TYPE
+    };
+
+    static final String SQL_INSERT_SEARCH = String.format("INSERT INTO %s (%s,%s,%s,%s) VALUES (?,?,?,?)",
+            GankSearchEntry.TABLE_NAME,
+            GankSearchEntry.COLUMN_NAME_DOCID, GankSearchEntry.COLUMN_NAME_TITLE,
+            GankSearchEntry.COLUMN_NAME_DESCRIPTION, GankSearchEntry.COLUMN_NAME_TYPE);
+
+    private static final String SQL_DELETE_SEARCH = String.format("DELETE FROM %s WHERE %s = ?",
+            GankSearchEntry.TABLE_NAME, GankSearchEntry.COLUMN_NAME_DOCID);
+
+    /**
+     * Matching ganks, newest first. The full-text index yields the docids and each row is then
+     * looked up by its primary key, so the cost is in the number of matches, not of rows.
+     */
+    private static final String SQL_SEARCH = String.format(
+            "SELECT %s FROM %s g JOIN (SELECT %s FROM %s WHERE %s MATCH ?) s ON g.%s = s.%s" +
+                    " ORDER BY g.%s DESC, g.%s DESC LIMIT ? OFFSET ?",
+            qualified("g", PROJECTION), GankEntry.TABLE_NAME,
+            GankSearchEntry.COLUMN_NAME_DOCID, GankSearchEntry.TABLE_NAME, GankSearchEntry.TABLE_NAME,
+            GankEntry._ID, GankSearchEntry.COLUMN_NAME_DOCID,
+            GankEntry.COLUMN_NAME_PUBLISHED_AT, GankEntry._ID);
+
+    /**
+     * A page of one category, newest first, read in order from the (type, published_at) index.
+     */
+    private static final String SQL_SELECT_CATEGORY = String.format(
+            "SELECT %s FROM %s WHERE %s = ? ORDER BY %s DESC, %s DESC LIMIT ? OFFSET ?",
+            TextUtils.join(",", PROJECTION), GankEntry.TABLE_NAME, GankEntry.COLUMN_NAME_TYPE,
+            GankEntry.COLUMN_NAME_PUBLISHED_AT, GankEntry._ID);
+
+    /**
+     * A page of every category, newest first, read in order from the published_at index.
+     */
+    private static final String SQL_SELECT_ALL_CATEGORIES = String.format(
+            "SELECT %s FROM %s ORDER BY %s DESC, %s DESC LIMIT ? OFFSET ?",
+            TextUtils.join(",", PROJECTION), GankEntry.TABLE_NAME,
+            GankEntry.COLUMN_NAME_PUBLISHED_AT, GankEntry._ID);
+
     private static GanksLocalDataSource INSTANCE;
+    private final GanksDbHelper mDbHelper;
     private final BriteDatabase mDatabaseHelper;
     private Func1<Cursor, Gank> mGankMapperFunction;
 
     // Prevent direct instantiation.
     private GanksLocalDataSource(@NonNull Context context) {
         checkNotNull(context);
-        GanksDbHelper dbHelper = new GanksDbHelper(context);
+        mDbHelper = new GanksDbHelper(context);
         SqlBrite sqlBrite = SqlBrite.create();
-        mDatabaseHelper = sqlBrite.wrapDatabaseHelper(dbHelper, Schedulers.io());
-        mGankMapperFunction = new Func1<Cursor, Gank>() {
-            @Override
-            public Gank call(Cursor c) {
-                String itemId = c.getString(c.getColumnIndexOrThrow(GanksPersistenceContract.GankEntry.COLUMN_NAME_ENTRY_ID));
-                String title = c.getString(c.getColumnIndexOrThrow(GanksPersistenceContract.GankEntry.COLUMN_NAME_TITLE));
-                String description =
-                        c.getString(c.getColumnIndexOrThrow(GanksPersistenceContract.GankEntry.COLUMN_NAME_DESCRIPTION));
-                boolean completed =
-                        c.getInt(c.getColumnIndexOrThrow(GanksPersistenceContract.GankEntry.COLUMN_NAME_COMPLETED)) == 1;
-                return new Gank(title, description, itemId, completed);
-            }
-        };
+        mDatabaseHelper = sqlBrite.wrapDatabaseHelper(mDbHelper, Schedulers.io());
+        mGankMapperFunction = new GankCursorMapper();
     }
 
     public static GanksLocalDataSource getInstance(@NonNull Context context) {
@@ -75,42 +167,281 @@ public class GanksLocalDataSource implements GanksDataSource {
         return INSTANCE;
     }
 
+    private static String qualified(String table, String[] columns) {
+        StringBuilder projection = new StringBuilder();
+        for (String column : columns) {
+            if (projection.length() > 0) {
+                projection.append(',');
+            }
+            projection.append(table).append('.').append(column).append(" AS ").append(column);
+        }
+        return projection.toString();
+    }
+
+    /**
+     * Ganks published on the day of {@code date}, served by the (published_day, type) index.
+     */
     @Override
     public Observable<List<Gank>> getGanks(Date date) {
-        String[] projection = {
-                GankEntry.COLUMN_NAME_ENTRY_ID,
-                GankEntry.COLUMN_NAME_TITLE,
-                GankEntry.COLUMN_NAME_DESCRIPTION,
-                GankEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s", TextUtils.join(",", projection), GankEntry.TABLE_NAME);
-        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, sql)
+        String day = String.valueOf(DateUtil.toDayKey(date));
+        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, SQL_SELECT_DAY, day)
                 .mapToList(mGankMapperFunction);
     }
 
     @Override
     public Observable<Gank> getGank(@NonNull String gankId,int position) {
-        String[] projection = {
-                GankEntry.COLUMN_NAME_ENTRY_ID,
-                GankEntry.COLUMN_NAME_TITLE,
-                GankEntry.COLUMN_NAME_DESCRIPTION,
-                GankEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s WHERE %s LIKE ?",
-                TextUtils.join(",", projection), GankEntry.TABLE_NAME, GankEntry.COLUMN_NAME_ENTRY_ID);
-        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, sql, gankId)
+        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, SQL_SELECT_ONE, gankId)
                 .mapToOneOrDefault(mGankMapperFunction, null);
     }
 
+    /**
+     * Ganks whose title, author or category match {@code query}, newest first. Every term of the
+     * query must match; CJK text matches anywhere, other words by prefix. Re-runs when the table
+     * changes, like the other queries.
+     *
+     * @param page 1-based page of {@code limit} results
+     */
+    @Override
+    public Observable<List<Gank>> searchGanks(@NonNull String query, int limit, int page) {
+        checkNotNull(query);
+        checkArgument(limit > 0, "limit must be positive");
+        checkArgument(page > 0, "page must be positive");
+        String match = SearchText.match(query);
+        if (match == null) {
+            return Observable.just(Collections.<Gank>emptyList());
+        }
+        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, SQL_SEARCH, match,
+                String.valueOf(limit), String.valueOf((page - 1) * limit))
+                .mapToList(mGankMapperFunction);
+    }
+
+    /**
+     * A page of what was stored of {@code category}. Pages are cut by offset in what is on the
+     * device, so they only line up with the backend's once everything before them is stored.
+     */
+    @Override
+    public Observable<List<Gank>> getCategoryGanks(@NonNull String category, int pageSize, int page) {
+        checkNotNull(category);
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        checkArgument(page > 0, "page must be positive");
+        String limit = String.valueOf(pageSize);
+        String offset = String.valueOf((page - 1) * pageSize);
+        if (GankService.CATEGORY_ALL.equals(category)) {
+            return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, SQL_SELECT_ALL_CATEGORIES, limit, offset)
+                    .mapToList(mGankMapperFunction);
+        }
+        return mDatabaseHelper.createQuery(GankEntry.TABLE_NAME, SQL_SELECT_CATEGORY, category, limit, offset)
+                .mapToList(mGankMapperFunction);
+    }
+
+    /**
+     * A gank on its own is not an issue: it stays under the issue it was stored with, if any.
+     */
     @Override
     public void saveGank(@NonNull Gank gank) {
         checkNotNull(gank);
+        writeGanks(Collections.singletonList(gank), null);
+    }
+
+    /**
+     * Saves the whole issue of {@code date}. Every gank is stored under that day, whatever its own
+     * publishedAt says, in the order of {@code ganks}.
+     */
+    @Override
+    public void saveGanks(@NonNull Date date, @NonNull List<Gank> ganks) {
+        checkNotNull(date);
+        checkNotNull(ganks);
+        if (ganks.isEmpty()) {
+            return;
+        }
+        writeGanks(ganks, toDayKey(date));
+    }
+
+    /**
+     * A page of a category is not an issue, so its ganks are not stored under any day: that would
+     * make a day look stored with a few of its ganks. Those already stored with their issue stay
+     * under it, where they were.
+     */
+    @Override
+    public void saveCategoryGanks(@NonNull List<Gank> ganks) {
+        checkNotNull(ganks);
+        if (ganks.isEmpty()) {
+            return;
+        }
+        writeGanks(ganks, null);
+    }
+
+    /**
+     * Writes all the ganks in one transaction, through compiled statements. Ganks that are stored
+     * already are updated in place, so they keep their _id and their completed flag: the backend
+     * does not know what was read here, and the lookup and the write are in the same transaction,
+     * so a gank marked read meanwhile stays read. Only new ganks are inserted.
+     * <p>
+     * Statement writes bypass SqlBrite, so the last row goes through {@link BriteDatabase}:
+     * inside a transaction SqlBrite holds that notification until the end, which gives the gank
+     * queries exactly one re-run for the whole batch. The search documents go in with the rows,
+     * before SqlBrite notifies.
+     *
+     * @param day the published_day of every gank, in the order of {@code ganks}, null to leave
+     *            each where it is stored
+     */
+    private void writeGanks(List<Gank> ganks, Long day) {
+        BriteDatabase.Transaction transaction = mDatabaseHelper.newTransaction();
+        SQLiteStatement selectStatement = null;
+        SQLiteStatement insertStatement = null;
+        SQLiteStatement updateStatement = null;
+        SQLiteStatement deleteSearchStatement = null;
+        SQLiteStatement searchStatement = null;
+        try {
+            SQLiteDatabase db = mDbHelper.getWritableDatabase();
+            selectStatement = db.compileStatement(SQL_SELECT_ROW_ID);
+            insertStatement = db.compileStatement(SQL_INSERT_GANK);
+            updateStatement = db.compileStatement(SQL_UPDATE_GANK);
+            deleteSearchStatement = db.compileStatement(SQL_DELETE_SEARCH);
+            searchStatement = db.compileStatement(SQL_INSERT_SEARCH);
+            int last = ganks.size() - 1;
+            for (int i = 0; i <= last; i++) {
+                Gank gank = ganks.get(i);
+                Long position = day == null ? null : (long) i;
+                selectStatement.bindString(1, gank.getId());
+                long rowId = selectStatement.simpleQueryForLong();
+                if (rowId == -1) {
+                    if (i < last) {
+                        bindInsert(insertStatement, gank, day, position);
+                        rowId = insertStatement.executeInsert();
+                    } else {
+                        ContentValues values = toContentValues(gank, day, position);
+                        values.put(GankEntry.COLUMN_NAME_COMPLETED, gank.isCompleted());
+                        rowId = mDatabaseHelper.insert(GankEntry.TABLE_NAME, values);
+                    }
+                } else {
+                    if (i < last) {
+                        bindUpdate(updateStatement, rowId, gank, day, position);
+                        updateStatement.execute();
+                    } else {
+                        mDatabaseHelper.update(GankEntry.TABLE_NAME, toContentValues(gank, day, position),
+                                GankEntry._ID + " = ?", String.valueOf(rowId));
+                    }
+                    deleteSearchStatement.bindLong(1, rowId);
+                    deleteSearchStatement.execute();
+                }
+                insertSearch(searchStatement, rowId, gank);
+            }
+            transaction.markSuccessful();
+        } finally {
+            closeAll(selectStatement, insertStatement, updateStatement, deleteSearchStatement, searchStatement);
+            transaction.end();
+        }
+    }
+
+    private static void closeAll(SQLiteStatement... statements) {
+        for (SQLiteStatement statement : statements) {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+    }
+
+    /**
+     * Everything but the completed flag, which only an insert sets. The day and the position are
+     * left out when null, so that an update keeps the stored ones.
+     */
+    private static ContentValues toContentValues(Gank gank, Long day, Long position) {
         ContentValues values = new ContentValues();
         values.put(GankEntry.COLUMN_NAME_ENTRY_ID, gank.getId());
         values.put(GankEntry.COLUMN_NAME_TITLE, gank.getTitle());
         values.put(GankEntry.COLUMN_NAME_DESCRIPTION, gank.getDescription());
-        values.put(GankEntry.COLUMN_NAME_COMPLETED, gank.isCompleted());
-        mDatabaseHelper.insert(GankEntry.TABLE_NAME, values, SQLiteDatabase.CONFLICT_REPLACE);
+        values.put(GankEntry.COLUMN_NAME_TYPE, gank.getType());
+        values.put(GankEntry.COLUMN_NAME_URL, gank.getUrl());
+        values.put(GankEntry.COLUMN_NAME_PUBLISHED_AT, toMillis(gank.getPublishedAt()));
+        if (day != null) {
+            values.put(GankEntry.COLUMN_NAME_PUBLISHED_DAY, day);
+        }
+        if (position != null) {
+            values.put(GankEntry.COLUMN_NAME_ISSUE_POSITION, position);
+        }
+        values.put(GankEntry.COLUMN_NAME_CREATED_AT, toMillis(gank.getCreatedAt()));
+        values.put(GankEntry.COLUMN_NAME_UPDATED_AT, toMillis(gank.getUpdatedAt()));
+        return values;
+    }
+
+    /**
+     * Binds in the column order of {@link #SQL_INSERT_GANK}.
+     */
+    private static void bindInsert(SQLiteStatement statement, Gank gank, Long day, Long position) {
+        statement.clearBindings();
+        bindString(statement, 1, gank.getId());
+        bindString(statement, 2, gank.getTitle());
+        bindString(statement, 3, gank.getDescription());
+        bindString(statement, 4, gank.getType());
+        bindString(statement, 5, gank.getUrl());
+        bindLong(statement, 6, toMillis(gank.getPublishedAt()));
+        bindLong(statement, 7, day);
+        bindLong(statement, 8, position);
+        bindLong(statement, 9, toMillis(gank.getCreatedAt()));
+        bindLong(statement, 10, toMillis(gank.getUpdatedAt()));
+        statement.bindLong(11, gank.isCompleted() ? 1 : 0);
+    }
+
+    /**
+     * Binds in the order of {@link #SQL_UPDATE_GANK}.
+     */
+    private static void bindUpdate(SQLiteStatement statement, long rowId, Gank gank, Long day, Long position) {
+        statement.clearBindings();
+        bindString(statement, 1, gank.getTitle());
+        bindString(statement, 2, gank.getDescription());
+        bindString(statement, 3, gank.getType());
+        bindString(statement, 4, gank.getUrl());
+        bindLong(statement, 5, toMillis(gank.getPublishedAt()));
+        bindLong(statement, 6, toMillis(gank.getCreatedAt()));
+        bindLong(statement, 7, toMillis(gank.getUpdatedAt()));
+        bindLong(statement, 8, day);
+        bindLong(statement, 9, position);
+        statement.bindLong(10, rowId);
+    }
+
+    private static void insertSearch(SQLiteStatement statement, long rowId, Gank gank) {
+        if (rowId == -1) {
+            // The row was not inserted.
+            return;
+        }
+        bindSearch(statement, rowId, gank.getTitle(), gank.getDescription(), gank.getType());
+        statement.executeInsert();
+    }
+
+    /**
+     * Binds in the column order of {@link #SQL_INSERT_SEARCH}.
+     */
+    static void bindSearch(SQLiteStatement statement, long rowId, String title, String description, String type) {
+        statement.clearBindings();
+        statement.bindLong(1, rowId);
+        statement.bindString(2, SearchText.index(title));
+        statement.bindString(3, SearchText.index(description));
+        statement.bindString(4, SearchText.index(type));
+    }
+
+    private static void bindLong(SQLiteStatement statement, int index, Long value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindLong(index, value);
+        }
+    }
+
+    private static Long toMillis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+
+    private static Long toDayKey(Date date) {
+        return date == null ? null : (long) DateUtil.toDayKey(date);
+    }
+
+    private static void bindString(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
     }
 
     @Override
@@ -123,7 +454,7 @@ public class GanksLocalDataSource implements GanksDataSource {
         ContentValues values = new ContentValues();
         values.put(GankEntry.COLUMN_NAME_COMPLETED, true);
 
-        String selection = GankEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = SELECTION_ENTRY_ID;
         String[] selectionArgs = {gankId};
         mDatabaseHelper.update(GankEntry.TABLE_NAME, values, selection, selectionArgs);
     }
@@ -138,14 +469,14 @@ public class GanksLocalDataSource implements GanksDataSource {
         ContentValues values = new ContentValues();
         values.put(GankEntry.COLUMN_NAME_COMPLETED, false);
 
-        String selection = GankEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = SELECTION_ENTRY_ID;
         String[] selectionArgs = {gankId};
         mDatabaseHelper.update(GankEntry.TABLE_NAME, values, selection, selectionArgs);
     }
 
     @Override
     public void clearCompletedGanks() {
-        String selection = GankEntry.COLUMN_NAME_COMPLETED + " LIKE ?";
+        String selection = GankEntry.COLUMN_NAME_COMPLETED + " = ?";
         String[] selectionArgs = {"1"};
         mDatabaseHelper.delete(GankEntry.TABLE_NAME, selection, selectionArgs);
     }
@@ -163,7 +494,7 @@ public class GanksLocalDataSource implements GanksDataSource {
 
     @Override
     public void deleteGank(@NonNull String gankId) {
-        String selection = GankEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = SELECTION_ENTRY_ID;
         String[] selectionArgs = {gankId};
         mDatabaseHelper.delete(GankEntry.TABLE_NAME, selection, selectionArgs);
     }
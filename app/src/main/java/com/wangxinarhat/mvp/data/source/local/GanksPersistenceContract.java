@@ -34,5 +34,35 @@ public final class GanksPersistenceContract {
         public static final String COLUMN_NAME_TITLE = "title";
         public static final String COLUMN_NAME_DESCRIPTION = "description";
         public static final String COLUMN_NAME_COMPLETED = "completed";
+        public static final String COLUMN_NAME_TYPE = "type";
+        public static final String COLUMN_NAME_URL = "url";
+        /* epoch millis */
+        public static final String COLUMN_NAME_PUBLISHED_AT = "published_at";
+        /* yyyyMMdd of published_at, see DateUtil#toDayKey */
+        public static final String COLUMN_NAME_PUBLISHED_DAY = "published_day";
+        /* 0-based position in the issue of published_day, null when not saved with an issue */
+        public static final String COLUMN_NAME_ISSUE_POSITION = "issue_position";
+        public static final String COLUMN_NAME_CREATED_AT = "created_at";
+        public static final String COLUMN_NAME_UPDATED_AT = "updated_at";
+
+        public static final String INDEX_ENTRY_ID = "gank_entryid";
+        public static final String INDEX_PUBLISHED_DAY_TYPE = "gank_published_day_type";
+        public static final String INDEX_TYPE_PUBLISHED_AT = "gank_type_published_at";
+        public static final String INDEX_PUBLISHED_AT = "gank_published_at";
+    }
+
+    /**
+     * FTS4 table over the searchable text of {@link GankEntry}, one document per gank row with
+     * the row's {@code _id} as docid. Columns hold the text as tokenized by {@link SearchText}.
+     */
+    public static abstract class GankSearchEntry {
+        public static final String TABLE_NAME = "gank_fts";
+        public static final String COLUMN_NAME_DOCID = "docid";
+        public static final String COLUMN_NAME_TITLE = "title";
+        public static final String COLUMN_NAME_DESCRIPTION = "description";
+        public static final String COLUMN_NAME_TYPE = "type";
+
+        public static final String TRIGGER_DELETE = "gank_fts_delete";
+        public static final String TRIGGER_REPLACE = "gank_fts_replace";
     }
 }
@@ -0,0 +1,110 @@
+package com.wangxinarhat.mvp.data.source.local;
+
+import android.support.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Turns text into what the full-text table indexes, and search queries into MATCH expressions
+ * against it.
+ * <p>
+ * The table uses SQLite's simple tokenizer, the only one every device has. It splits on ASCII
+ * punctuation and spaces only, so a Chinese title would be one long token that only matches from
+ * its first character. Text is therefore indexed with every CJK character as a token of its own,
+ * and words of other scripts lower-cased. A query term becomes a phrase of the same tokens: its
+ * CJK characters must appear in a row, anywhere in the text, and its last word may be the start of
+ * a longer one. Terms are ANDed.
+ */
+final class SearchText {
+
+    private SearchText() {
+    }
+
+    /**
+     * @return {@code text} split into space separated tokens, empty for null
+     */
+    static String index(@Nullable String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length() * 2);
+        appendTokens(text.toLowerCase(Locale.ROOT), out);
+        return out.toString();
+    }
+
+    /**
+     * @return the MATCH expression for what a user typed, or null if it has nothing to search for
+     */
+    @Nullable
+    static String match(@Nullable String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder tokens = new StringBuilder();
+        for (String term : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            tokens.setLength(0);
+            boolean endsInWord = appendTokens(term, tokens);
+            if (tokens.length() == 0) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(tokens);
+            if (endsInWord) {
+                // A word still being typed.
+                match.append('*');
+            }
+            match.append('"');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    /**
+     * Appends the tokens of {@code text}, space separated, dropping everything else.
+     *
+     * @return true if the last token is a word rather than a CJK character
+     */
+    private static boolean appendTokens(String text, StringBuilder out) {
+        boolean inWord = false;
+        boolean lastIsWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (isCjk(c)) {
+                separate(out);
+                out.appendCodePoint(c);
+                inWord = false;
+                lastIsWord = false;
+            } else if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    separate(out);
+                    inWord = true;
+                }
+                out.appendCodePoint(c);
+                lastIsWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        return lastIsWord;
+    }
+
+    private static void separate(StringBuilder out) {
+        if (out.length() > 0) {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Scripts written without spaces between words: Han, kana and Hangul.
+     */
+    static boolean isCjk(int c) {
+        return Character.isLetter(c)
+                && ((c >= 0x2E80 && c <= 0x9FFF)      // radicals, kana, CJK unified ideographs
+                || (c >= 0xAC00 && c <= 0xD7AF)       // Hangul syllables
+                || (c >= 0xF900 && c <= 0xFAFF)       // CJK compatibility ideographs
+                || (c >= 0x20000 && c <= 0x2FA1F));   // supplementary ideographs
+    }
+}
@@ -20,17 +20,30 @@ import android.support.annotation.NonNull;
 
 import com.wangxinarhat.mvp.api.GankFactory;
 import com.wangxinarhat.mvp.api.GankService;
+import com.wangxinarhat.mvp.api.SingleFlight;
+import com.wangxinarhat.mvp.data.CategoryData;
 import com.wangxinarhat.mvp.data.Gank;
 import com.wangxinarhat.mvp.data.GankData;
-import com.wangxinarhat.mvp.data.Results;
+import com.wangxinarhat.mvp.data.SearchData;
 import com.wangxinarhat.mvp.data.source.GanksDataSource;
+import com.wangxinarhat.mvp.utils.DateUtil;
 
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import okhttp3.Headers;
+import retrofit2.Response;
+import retrofit2.adapter.rxjava.HttpException;
 import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
 /**
@@ -43,13 +56,40 @@ public class GanksRemoteDataSource implements GanksDataSource {
 
     private static final int SERVICE_LATENCY_IN_MILLIS = 5000;
 
+    /**
+     * How many days of answers to keep, for conditional requests and lookups by id.
+     */
+    private static final int MAX_SNAPSHOT_DAYS = 31;
+
+    /**
+     * The last full answer per day, least recently used first. Guarded by itself, together with
+     * {@link #mGanksById}.
+     */
+    private final Map<Integer, DaySnapshot> mSnapshots =
+            new LinkedHashMap<Integer, DaySnapshot>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, DaySnapshot> eldest) {
+                    if (size() <= MAX_SNAPSHOT_DAYS) {
+                        return false;
+                    }
+                    unindex(eldest.getValue());
+                    return true;
+                }
+            };
+
+    /**
+     * Every gank of {@link #mSnapshots}, by id.
+     */
+    private final Map<String, Gank> mGanksById = new HashMap<>();
 
-    private Date mCurrentDate;
-    private List<Gank> mGankList;
+    /**
+     * The request for each day that is being loaded, shared by everyone asking for that day
+     * meanwhile.
+     */
+    private final SingleFlight mInFlight = new SingleFlight();
 
 
     private GanksRemoteDataSource(Date date) {
-        mCurrentDate = date;
     }
 
     public static GanksRemoteDataSource getInstance(Date date) {
@@ -65,56 +105,90 @@ public class GanksRemoteDataSource implements GanksDataSource {
 
     public static final GankService mGankService = GankFactory.getGankService();
 
+    /**
+     * Emits an unmodifiable list that is never changed afterwards, so callers on different
+     * threads can hold on to it. Concurrent calls for the same day share one request.
+     */
     @Override
-    public Observable<List<Gank>> getGanks(Date date) {
-
-        mCurrentDate = date;
+    public Observable<List<Gank>> getGanks(final Date date) {
+        final int dayKey = DateUtil.toDayKey(date);
+        return mInFlight.run(String.valueOf(dayKey), Observable.defer(new Func0<Observable<List<Gank>>>() {
+            @Override
+            public Observable<List<Gank>> call() {
+                return requestDay(dayKey, date);
+            }
+        }));
+    }
 
+    private Observable<List<Gank>> requestDay(final int dayKey, Date date) {
         Calendar calendar = Calendar.getInstance();
-        calendar.setTime(mCurrentDate);
+        calendar.setTime(date);
         int year = calendar.get(Calendar.YEAR);
         int month = calendar.get(Calendar.MONTH) + 1;
         int day = calendar.get(Calendar.DAY_OF_MONTH);
 
-
-        Observable<List<Gank>> observable = mGankService.getGankData(year, month, day)
-                .map(new Func1<GankData, Results>() {
-                    @Override
-                    public Results call(GankData gankData) {
-                        return gankData.results;
-                    }
-                })
-                .map(new Func1<Results, List<Gank>>() {
+        final DaySnapshot snapshot;
+        synchronized (mSnapshots) {
+            snapshot = mSnapshots.get(dayKey);
+        }
+        // Past days are cached for good by the HTTP cache, which a conditional request skips.
+        boolean conditional = snapshot != null
+                && dayKey >= DateUtil.toDayKey(new Date(System.currentTimeMillis()));
+
+        return mGankService.getGankData(year, month, day,
+                conditional ? snapshot.eTag : null,
+                conditional ? snapshot.lastModified : null)
+                .map(new Func1<Response<GankData>, List<Gank>>() {
                     @Override
-                    public List<Gank> call(Results results) {
-                        return addAllResults(results);
+                    public List<Gank> call(Response<GankData> response) {
+                        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED && snapshot != null) {
+                            // Unchanged day, nothing was downloaded.
+                            return snapshot.ganks;
+                        }
+                        if (!response.isSuccessful()) {
+                            throw Exceptions.propagate(new HttpException(response));
+                        }
+                        Headers headers = response.headers();
+                        DaySnapshot answer = new DaySnapshot(headers.get("ETag"), headers.get("Last-Modified"),
+                                Collections.unmodifiableList(new ArrayList<>(response.body().ganks)));
+                        remember(dayKey, answer);
+                        return answer.ganks;
                     }
                 });
-        return observable;
-
     }
 
-    private List<Gank> addAllResults(Results results) {
-        if (null == mGankList) {
-            mGankList = new ArrayList<>();
-        } else {
-            mGankList.clear();
+    private void remember(int dayKey, DaySnapshot snapshot) {
+        synchronized (mSnapshots) {
+            DaySnapshot old = mSnapshots.put(dayKey, snapshot);
+            if (old != null) {
+                unindex(old);
+            }
+            for (Gank gank : snapshot.ganks) {
+                mGanksById.put(gank.getId(), gank);
+            }
         }
-        if (results.androidList != null) mGankList.addAll(results.androidList);
-        if (results.iOSList != null) mGankList.addAll(results.iOSList);
-        if (results.appList != null) mGankList.addAll(results.appList);
-        if (results.expandList != null) mGankList.addAll(results.expandList);
-        if (results.recommendList != null) mGankList.addAll(results.recommendList);
-        if (results.restList != null) mGankList.addAll(results.restList);
-        // make meizi data is in first gankList
-        if (results.welfareList != null) mGankList.addAll(0, results.welfareList);
-        return mGankList;
     }
 
+    /**
+     * Called with {@link #mSnapshots} held.
+     */
+    private void unindex(DaySnapshot snapshot) {
+        for (Gank gank : snapshot.ganks) {
+            if (mGanksById.get(gank.getId()) == gank) {
+                mGanksById.remove(gank.getId());
+            }
+        }
+    }
 
+    /**
+     * Looks {@code gankId} up among the days loaded so far; {@code position} is not needed.
+     */
     @Override
-    public Observable<Gank> getGank(String gankId,int position) {
-        final Gank gank = mGankList.get(position);
+    public Observable<Gank> getGank(String gankId, int position) {
+        final Gank gank;
+        synchronized (mSnapshots) {
+            gank = mGanksById.get(gankId);
+        }
         if (gank != null) {
             return Observable.just(gank);
         } else {
@@ -122,10 +196,48 @@ public class GanksRemoteDataSource implements GanksDataSource {
         }
     }
 
+    /**
+     * Searches every category on the backend. Results are not remembered: they belong to no
+     * particular day.
+     */
+    @Override
+    public Observable<List<Gank>> searchGanks(@NonNull String query, int limit, int page) {
+        return mGankService.search(query, GankService.SEARCH_ALL, limit, page)
+                .map(new Func1<SearchData, List<Gank>>() {
+                    @Override
+                    public List<Gank> call(SearchData searchData) {
+                        return searchData.results == null ? Collections.<Gank>emptyList() : searchData.results;
+                    }
+                });
+    }
+
+    /**
+     * A page of one category, straight from the backend. Like search results, pages are not
+     * remembered here: {@link com.wangxinarhat.mvp.data.source.GanksRepository} stores them.
+     */
+    @Override
+    public Observable<List<Gank>> getCategoryGanks(@NonNull String category, int pageSize, int page) {
+        return mGankService.getCategoryData(category, pageSize, page)
+                .map(new Func1<CategoryData, List<Gank>>() {
+                    @Override
+                    public List<Gank> call(CategoryData categoryData) {
+                        return categoryData.results == null ? Collections.<Gank>emptyList() : categoryData.results;
+                    }
+                });
+    }
+
     @Override
     public void saveGank(Gank gank) {
     }
 
+    @Override
+    public void saveGanks(@NonNull Date date, @NonNull List<Gank> ganks) {
+    }
+
+    @Override
+    public void saveCategoryGanks(@NonNull List<Gank> ganks) {
+    }
+
     @Override
     public void completeGank(Gank gank) {
     }
@@ -164,4 +276,19 @@ public class GanksRemoteDataSource implements GanksDataSource {
     @Override
     public void deleteGank(String gankId) {
     }
+
+    /**
+     * One answer for a day: its validators, possibly null, and its ganks, never modified.
+     */
+    private static class DaySnapshot {
+        final String eTag;
+        final String lastModified;
+        final List<Gank> ganks;
+
+        DaySnapshot(String eTag, String lastModified, List<Gank> ganks) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.ganks = ganks;
+        }
+    }
 }
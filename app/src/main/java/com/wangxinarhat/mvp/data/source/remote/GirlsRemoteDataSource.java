@@ -0,0 +1,53 @@
+package com.wangxinarhat.mvp.data.source.remote;
+
+import com.wangxinarhat.mvp.api.GankFactory;
+import com.wangxinarhat.mvp.api.GankService;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.data.PrettyGirlData;
+
+import java.util.Collections;
+import java.util.List;
+
+import rx.Observable;
+import rx.functions.Func1;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The welfare pictures, page by page, from {@link GankService#getPrettyGirlData}. They are not
+ * ganks of a day and are not stored: Glide keeps the pictures themselves.
+ */
+public class GirlsRemoteDataSource {
+
+    private static GirlsRemoteDataSource INSTANCE;
+
+    private final GankService mGankService;
+
+    // Prevent direct instantiation.
+    private GirlsRemoteDataSource(GankService gankService) {
+        mGankService = checkNotNull(gankService);
+    }
+
+    public static GirlsRemoteDataSource getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new GirlsRemoteDataSource(GankFactory.getGankService());
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @param page 1-based page of {@code pageSize} pictures, newest first
+     */
+    public Observable<List<Girl>> getGirls(int pageSize, int page) {
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        checkArgument(page > 0, "page must be positive");
+        return mGankService.getPrettyGirlData(pageSize, page)
+                .map(new Func1<PrettyGirlData, List<Girl>>() {
+                    @Override
+                    public List<Girl> call(PrettyGirlData data) {
+                        return data.results == null ? Collections.<Girl>emptyList() : data.results;
+                    }
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.util.LruCache;
+
+/**
+ * Height over width of the pictures seen so far, by url. The grid is laid out with these before
+ * the pictures are loaded again, so cells keep their height and the columns do not shift when
+ * scrolling back.
+ */
+final class AspectRatios {
+
+    /**
+     * Until its picture is in, a cell is portrait, as most of these pictures are.
+     */
+    static final float DEFAULT = 4f / 3f;
+
+    static final float MIN = 0.5f;
+
+    /**
+     * Taller pictures are cropped rather than given a cell longer than this.
+     */
+    static final float MAX = 2f;
+
+    /**
+     * A float per picture: thousands of them cost less than one thumbnail.
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    private final LruCache<String, Float> mRatios = new LruCache<>(MAX_ENTRIES);
+
+    float get(String url) {
+        Float ratio = url == null ? null : mRatios.get(url);
+        return ratio == null ? DEFAULT : ratio;
+    }
+
+    /**
+     * @return the ratio of a {@code width} x {@code height} picture, as the grid uses it
+     */
+    float put(String url, int width, int height) {
+        float ratio = width > 0 && height > 0 ? Math.max(MIN, Math.min(MAX, (float) height / width)) : DEFAULT;
+        if (url != null) {
+            mRatios.put(url, ratio);
+        }
+        return ratio;
+    }
+}
@@ -0,0 +1,115 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.v7.app.ActionBar;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.Toolbar;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.data.source.PagedFeed;
+import com.wangxinarhat.mvp.data.source.remote.GirlsRemoteDataSource;
+import com.wangxinarhat.mvp.global.BaseApplication;
+import com.wangxinarhat.mvp.utils.ActivityUtils;
+
+import java.util.List;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+import rx.Observable;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+/**
+ * The welfare pictures, from {@link GirlsRemoteDataSource}.
+ */
+public class GalleryActivity extends AppCompatActivity {
+
+    private static final int PAGE_SIZE = 30;
+
+    /**
+     * A page of grid ahead: with a few columns, cells go by faster than rows of a list.
+     */
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE;
+
+    private static final Func1<Girl, String> GIRL_URL = new Func1<Girl, String>() {
+        @Override
+        public String call(Girl girl) {
+            return girl.url;
+        }
+    };
+
+    @BindView(R.id.toolbar)
+    Toolbar mToolbar;
+
+    private PagedFeed<Girl> mFeed;
+
+    public static Intent getIntent() {
+        return new Intent(BaseApplication.getApplication(), GalleryActivity.class);
+    }
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.act_gallery);
+        ButterKnife.bind(this);
+
+        initView();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void initView() {
+        setSupportActionBar(mToolbar);
+        ActionBar ab = getSupportActionBar();
+        ab.setHomeButtonEnabled(true);
+        ab.setDisplayHomeAsUpEnabled(true);
+        ab.setTitle(R.string.nav_gallery);
+
+        GalleryFragment galleryFragment =
+                (GalleryFragment) getSupportFragmentManager().findFragmentById(R.id.contentFrame);
+        if (galleryFragment == null) {
+            galleryFragment = GalleryFragment.newInstance();
+            ActivityUtils.addFragmentToActivity(
+                    getSupportFragmentManager(), galleryFragment, R.id.contentFrame);
+        }
+
+        // Kept across rotations, with the pages it has: the grid comes back where it was.
+        mFeed = (PagedFeed<Girl>) getLastCustomNonConfigurationInstance();
+        if (mFeed == null) {
+            mFeed = newFeed(GirlsRemoteDataSource.getInstance());
+        }
+        new GalleryPresenter(mFeed, galleryFragment);
+    }
+
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        return mFeed;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (!isChangingConfigurations()) {
+            mFeed.cancel();
+        }
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+
+    private static PagedFeed<Girl> newFeed(final GirlsRemoteDataSource girlsDataSource) {
+        return new PagedFeed<>(new PagedFeed.PageLoader<Girl>() {
+            @Override
+            public Observable<List<Girl>> loadPage(int page) {
+                return girlsDataSource.getGirls(PAGE_SIZE, page)
+                        .subscribeOn(Schedulers.io());
+            }
+        }, GIRL_URL, PAGE_SIZE, PREFETCH_DISTANCE, AndroidSchedulers.mainThread());
+    }
+}
@@ -0,0 +1,89 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.base.OnHolderClickListener;
+import com.wangxinarhat.mvp.data.Girl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gallery cells. A cell lets go of its bitmap as soon as it is recycled, so the decoded pictures
+ * are those on screen plus the ones RecyclerView and Glide's memory cache keep, however far the
+ * user has scrolled.
+ */
+public class GalleryAdapter extends RecyclerView.Adapter<HolderPicture> implements OnHolderClickListener {
+
+    private final List<Girl> mGirls = new ArrayList<>();
+
+    private final AspectRatios mRatios = new AspectRatios();
+
+    private final int mThumbnailWidth;
+
+    private final OnPictureClickListener mListener;
+
+    public interface OnPictureClickListener {
+        void onPictureClick(Girl girl);
+    }
+
+    /**
+     * @param thumbnailWidth width pictures are decoded at, that of a column
+     */
+    public GalleryAdapter(int thumbnailWidth, OnPictureClickListener listener) {
+        mThumbnailWidth = thumbnailWidth;
+        mListener = listener;
+    }
+
+    public int getThumbnailWidth() {
+        return mThumbnailWidth;
+    }
+
+    public Girl getGirl(int position) {
+        return mGirls.get(position);
+    }
+
+    public void replaceData(List<Girl> girls) {
+        mGirls.clear();
+        mGirls.addAll(girls);
+        notifyDataSetChanged();
+    }
+
+    public void appendData(List<Girl> girls) {
+        int start = mGirls.size();
+        mGirls.addAll(girls);
+        notifyItemRangeInserted(start, girls.size());
+    }
+
+    @Override
+    public HolderPicture onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_picture, parent, false);
+        return new HolderPicture(view, this, mRatios, mThumbnailWidth);
+    }
+
+    @Override
+    public void onBindViewHolder(HolderPicture holder, int position) {
+        holder.bindData(mGirls.get(position));
+    }
+
+    @Override
+    public void onViewRecycled(HolderPicture holder) {
+        holder.clear();
+    }
+
+    @Override
+    public int getItemCount() {
+        return mGirls.size();
+    }
+
+    @Override
+    public void onHolderClick(View itemView, int position) {
+        if (null != mListener && position >= 0 && position < mGirls.size()) {
+            mListener.onPictureClick(mGirls.get(position));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.support.annotation.NonNull;
+
+import com.wangxinarhat.mvp.base.BasePresenter;
+import com.wangxinarhat.mvp.base.BaseView;
+import com.wangxinarhat.mvp.data.Girl;
+
+import java.util.List;
+
+/**
+ * This specifies the contract between the welfare gallery and its presenter.
+ */
+public interface GalleryContract {
+
+    interface View extends BaseView<Presenter> {
+
+        void setLoadingIndicator(boolean active);
+
+        /**
+         * replace the pictures on screen
+         */
+        void showPictures(List<Girl> girls);
+
+        /**
+         * add the next page after the pictures on screen
+         */
+        void showMorePictures(List<Girl> girls);
+
+        void showLoadingPicturesError();
+
+        void showPictureUi(String url, String title);
+
+        boolean isActive();
+    }
+
+    interface Presenter extends BasePresenter {
+
+        /**
+         * start over from the newest pictures
+         */
+        void refresh();
+
+        /**
+         * ask again for the page that failed
+         */
+        void retry();
+
+        /**
+         * the picture at {@code position} is on screen
+         */
+        void onPictureVisible(int position);
+
+        void openPicture(@NonNull Girl girl);
+    }
+}
@@ -0,0 +1,167 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.design.widget.Snackbar;
+import android.support.v4.app.Fragment;
+import android.support.v4.widget.SwipeRefreshLayout;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.gankdetail.GankDetailActivity;
+
+import java.util.List;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The welfare pictures in a staggered grid, loaded page by page as the user scrolls.
+ */
+public class GalleryFragment extends Fragment implements GalleryContract.View, GalleryAdapter.OnPictureClickListener,
+        SwipeRefreshLayout.OnRefreshListener {
+
+    /**
+     * Narrowest a column gets before the grid drops one.
+     */
+    private static final int MIN_COLUMN_WIDTH_DP = 160;
+
+    private static final int MIN_COLUMNS = 2;
+
+    @BindView(R.id.swipe)
+    SwipeRefreshLayout mSwipe;
+    @BindView(R.id.recycler)
+    RecyclerView mRecycler;
+
+    private GalleryContract.Presenter mPresenter;
+
+    private GalleryAdapter mAdapter;
+
+    public static GalleryFragment newInstance() {
+        return new GalleryFragment();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        mPresenter.subscribe();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        mPresenter.unsubscribe();
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.frag_gallery, container, false);
+        ButterKnife.bind(this, root);
+        return root;
+    }
+
+    @Override
+    public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        int columns = Math.max(MIN_COLUMNS, (int) (metrics.widthPixels / metrics.density) / MIN_COLUMN_WIDTH_DP);
+
+        mAdapter = new GalleryAdapter(metrics.widthPixels / columns, this);
+        StaggeredGridLayoutManager layoutManager =
+                new StaggeredGridLayoutManager(columns, StaggeredGridLayoutManager.VERTICAL);
+        // Cells only change height when their picture first comes in; keep them in their column
+        // rather than moving them around to fill gaps.
+        layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+        mRecycler.setLayoutManager(layoutManager);
+        mRecycler.setHasFixedSize(true);
+        mRecycler.setAdapter(mAdapter);
+        // A row of bound cells kept aside, and a few rows of recycled ones: off screen cells hold
+        // no bitmap, GalleryAdapter clears them.
+        mRecycler.setItemViewCacheSize(columns);
+        mRecycler.getRecycledViewPool().setMaxRecycledViews(0, columns * 3);
+
+        final PicturePreloader preloader = new PicturePreloader(layoutManager, mAdapter, columns * 2);
+        mRecycler.addOnScrollListener(preloader);
+        mRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    mPresenter.onPictureVisible(preloader.lastVisiblePosition());
+                }
+            }
+        });
+
+        mSwipe.setOnRefreshListener(this);
+    }
+
+    @Override
+    public void setPresenter(GalleryContract.Presenter presenter) {
+        mPresenter = checkNotNull(presenter);
+    }
+
+    @Override
+    public void onRefresh() {
+        mPresenter.refresh();
+    }
+
+    @Override
+    public void setLoadingIndicator(final boolean active) {
+        if (getView() == null) {
+            return;
+        }
+        // Make sure setRefreshing() is called after the layout is done with everything else.
+        mSwipe.post(new Runnable() {
+            @Override
+            public void run() {
+                mSwipe.setRefreshing(active);
+            }
+        });
+    }
+
+    @Override
+    public void showPictures(List<Girl> girls) {
+        mAdapter.replaceData(girls);
+    }
+
+    @Override
+    public void showMorePictures(List<Girl> girls) {
+        mAdapter.appendData(girls);
+    }
+
+    @Override
+    public void showLoadingPicturesError() {
+        Snackbar.make(mRecycler, R.string.loading_pictures_error, Snackbar.LENGTH_LONG)
+                .setAction(R.string.retry, new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                        mPresenter.retry();
+                    }
+                })
+                .show();
+    }
+
+    @Override
+    public void showPictureUi(String url, String title) {
+        startActivity(GankDetailActivity.getIntent(url, title));
+    }
+
+    @Override
+    public boolean isActive() {
+        return isAdded();
+    }
+
+    @Override
+    public void onPictureClick(Girl girl) {
+        mPresenter.openPicture(girl);
+    }
+}
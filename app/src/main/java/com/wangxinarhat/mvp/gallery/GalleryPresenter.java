@@ -0,0 +1,100 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.support.annotation.NonNull;
+
+import com.orhanobut.logger.Logger;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.data.source.PagedFeed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Shows the welfare pictures' {@link PagedFeed} in a {@link GalleryFragment}.
+ */
+public class GalleryPresenter implements GalleryContract.Presenter, PagedFeed.Listener<Girl> {
+
+    private static final String TAG = GalleryPresenter.class.getCanonicalName();
+
+    private final PagedFeed<Girl> mFeed;
+
+    private final GalleryContract.View mGalleryView;
+
+    public GalleryPresenter(@NonNull PagedFeed<Girl> feed, @NonNull GalleryContract.View galleryView) {
+        mFeed = checkNotNull(feed, "feed cannot be null");
+        mGalleryView = checkNotNull(galleryView, "galleryView cannot be null!");
+        mGalleryView.setPresenter(this);
+    }
+
+    @Override
+    public void subscribe() {
+        mFeed.setListener(this);
+        if (!mFeed.getItems().isEmpty()) {
+            mGalleryView.showPictures(mFeed.getItems());
+        }
+        mGalleryView.setLoadingIndicator(mFeed.isLoading() && mFeed.getItems().isEmpty());
+        mFeed.start();
+    }
+
+    @Override
+    public void unsubscribe() {
+        mFeed.setListener(null);
+    }
+
+    @Override
+    public void refresh() {
+        mFeed.refresh();
+    }
+
+    @Override
+    public void retry() {
+        mFeed.retry();
+    }
+
+    @Override
+    public void onPictureVisible(int position) {
+        mFeed.onItemVisible(position);
+    }
+
+    @Override
+    public void openPicture(@NonNull Girl girl) {
+        checkNotNull(girl, "girl cannot be null!");
+        mGalleryView.showPictureUi(girl.url, girl.desc);
+    }
+
+    @Override
+    public void onItemsReset(List<Girl> items) {
+        if (mGalleryView.isActive()) {
+            mGalleryView.showPictures(items);
+        }
+    }
+
+    @Override
+    public void onItemsAppended(List<Girl> items, int start, int count) {
+        if (mGalleryView.isActive()) {
+            mGalleryView.showMorePictures(new ArrayList<>(items.subList(start, start + count)));
+        }
+    }
+
+    @Override
+    public void onLoadingChanged(boolean loading) {
+        if (!mGalleryView.isActive()) {
+            return;
+        }
+        if (!loading) {
+            mGalleryView.setLoadingIndicator(false);
+        } else if (mFeed.getItems().isEmpty()) {
+            mGalleryView.setLoadingIndicator(true);
+        }
+    }
+
+    @Override
+    public void onPageError(int page, Throwable e) {
+        Logger.e(TAG, e.getMessage());
+        if (mGalleryView.isActive()) {
+            mGalleryView.showLoadingPicturesError();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.graphics.Bitmap;
+import android.view.View;
+import android.widget.TextView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.animation.GlideAnimation;
+import com.bumptech.glide.request.target.BitmapImageViewTarget;
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.base.BaseHolder;
+import com.wangxinarhat.mvp.base.OnHolderClickListener;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.utils.DateUtil;
+import com.wangxinarhat.mvp.utils.GlideUtils;
+import com.wangxinarhat.mvp.widget.RatioImageView;
+
+import butterknife.BindView;
+
+/**
+ * A picture of the gallery, as tall as its aspect ratio asks for.
+ */
+public class HolderPicture extends BaseHolder<Girl> {
+
+    /**
+     * Width {@link RatioImageView} is given, the height follows from the ratio.
+     */
+    private static final int RATIO_BASE = 1000;
+
+    @BindView(R.id.picture_date)
+    TextView mTvTime;
+    @BindView(R.id.picture_image)
+    RatioImageView mImageView;
+
+    private final AspectRatios mRatios;
+
+    private final int mThumbnailWidth;
+
+    private float mRatio;
+
+    public HolderPicture(View itemView, OnHolderClickListener listener, AspectRatios ratios, int thumbnailWidth) {
+        super(itemView, listener);
+        mRatios = ratios;
+        mThumbnailWidth = thumbnailWidth;
+    }
+
+    @Override
+    protected void bindData(final Girl girl) {
+        mTvTime.setText(DateUtil.toDate(girl.publishedAt));
+        setRatio(mRatios.get(girl.url));
+
+        GlideUtils.loadThumbnail(girl.url, mThumbnailWidth, thumbnailMaxHeight(mThumbnailWidth),
+                new BitmapImageViewTarget(mImageView) {
+                    @Override
+                    public void onResourceReady(Bitmap resource, GlideAnimation<? super Bitmap> glideAnimation) {
+                        setRatio(mRatios.put(girl.url, resource.getWidth(), resource.getHeight()));
+                        super.onResourceReady(resource, glideAnimation);
+                    }
+                });
+    }
+
+    /**
+     * Lets go of the picture, so its bitmap can be reused as soon as the cell is off screen.
+     */
+    void clear() {
+        Glide.clear(mImageView);
+    }
+
+    static int thumbnailMaxHeight(int thumbnailWidth) {
+        return (int) (thumbnailWidth * AspectRatios.MAX);
+    }
+
+    private void setRatio(float ratio) {
+        if (ratio == mRatio) {
+            return;
+        }
+        mRatio = ratio;
+        mImageView.setOriginalSize(RATIO_BASE, Math.round(RATIO_BASE * ratio));
+        mImageView.requestLayout();
+    }
+}
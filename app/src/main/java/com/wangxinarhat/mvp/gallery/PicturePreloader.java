@@ -0,0 +1,111 @@
+package com.wangxinarhat.mvp.gallery;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+
+import com.bumptech.glide.Glide;
+import com.wangxinarhat.mvp.data.Girl;
+import com.wangxinarhat.mvp.utils.GlideUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Scroll listener for the gallery that decodes the next {@code ahead} thumbnails in the direction
+ * of the scroll, and holds image loads back during flings.
+ * <p>
+ * Thumbnails are preloaded at the size {@link HolderPicture} loads them at, so they are served
+ * from the memory cache when their cell comes up. During a fling cells fly past faster than their
+ * pictures can be shown, so requests are paused until the grid stops or is touched again.
+ */
+public class PicturePreloader extends RecyclerView.OnScrollListener {
+
+    /**
+     * Recently preloaded urls, so each scroll event does not request them again.
+     */
+    private static final int MAX_REMEMBERED = 32;
+
+    private final StaggeredGridLayoutManager mLayoutManager;
+    private final GalleryAdapter mAdapter;
+    private final int mAhead;
+
+    private final Deque<String> mPreloaded = new ArrayDeque<>(MAX_REMEMBERED);
+
+    private int[] mPositions;
+    private boolean mPaused;
+
+    public PicturePreloader(@NonNull StaggeredGridLayoutManager layoutManager, @NonNull GalleryAdapter adapter,
+                            int ahead) {
+        checkArgument(ahead > 0, "ahead must be positive");
+        mLayoutManager = checkNotNull(layoutManager);
+        mAdapter = checkNotNull(adapter);
+        mAhead = ahead;
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+            if (!mPaused) {
+                Glide.with(recyclerView.getContext()).pauseRequests();
+                mPaused = true;
+            }
+        } else if (mPaused) {
+            Glide.with(recyclerView.getContext()).resumeRequests();
+            mPaused = false;
+        }
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        if (dy == 0) {
+            return;
+        }
+        int step = dy < 0 ? -1 : 1;
+        int position = step > 0 ? lastVisiblePosition() : firstVisiblePosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        int width = mAdapter.getThumbnailWidth();
+        int maxHeight = HolderPicture.thumbnailMaxHeight(width);
+        int count = mAdapter.getItemCount();
+        for (int i = 0; i < mAhead; i++) {
+            position += step;
+            if (position < 0 || position >= count) {
+                return;
+            }
+            Girl girl = mAdapter.getGirl(position);
+            if (girl.url != null && !mPreloaded.contains(girl.url)) {
+                if (mPreloaded.size() == MAX_REMEMBERED) {
+                    mPreloaded.removeFirst();
+                }
+                mPreloaded.addLast(girl.url);
+                GlideUtils.preloadThumbnail(recyclerView.getContext(), girl.url, width, maxHeight);
+            }
+        }
+    }
+
+    int lastVisiblePosition() {
+        mPositions = mLayoutManager.findLastVisibleItemPositions(mPositions);
+        int last = RecyclerView.NO_POSITION;
+        for (int position : mPositions) {
+            last = Math.max(last, position);
+        }
+        return last;
+    }
+
+    private int firstVisiblePosition() {
+        mPositions = mLayoutManager.findFirstVisibleItemPositions(mPositions);
+        int first = RecyclerView.NO_POSITION;
+        for (int position : mPositions) {
+            if (position != RecyclerView.NO_POSITION && (first == RecyclerView.NO_POSITION || position < first)) {
+                first = position;
+            }
+        }
+        return first;
+    }
+}
@@ -0,0 +1,160 @@
+package com.wangxinarhat.mvp.ganks;
+
+import android.support.v7.widget.RecyclerView;
+
+import com.google.common.base.Objects;
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The range notifications that turn one list of items into another, for a
+ * {@link RecyclerView.Adapter}. Items are matched by key and then compared by content, so a gank
+ * marked as read only rebinds its own row.
+ * <p>
+ * The support library used here has no DiffUtil. This is cheaper than a full Myers diff and covers
+ * how the list actually changes (days added, removed or refreshed, items edited in place): it is
+ * O(n) as long as matched items keep their relative order, and falls back to
+ * {@link RecyclerView.Adapter#notifyDataSetChanged()} when they do not.
+ * <p>
+ * {@link #calculate} does no UI work and is meant to run off the main thread;
+ * {@link #dispatchTo} must run on it.
+ */
+final class GankListDiff {
+
+    private static final int REMOVE = 0;
+    private static final int INSERT = 1;
+    private static final int CHANGE = 2;
+
+    /**
+     * Operations as (type, position, count) triples, in dispatch order.
+     */
+    private final List<int[]> mOps;
+
+    private final boolean mReordered;
+
+    private GankListDiff(List<int[]> ops, boolean reordered) {
+        mOps = ops;
+        mReordered = reordered;
+    }
+
+    static GankListDiff calculate(GanksListModel oldModel, GanksListModel newModel) {
+        Map<String, Integer> oldPositions = positions(oldModel);
+        Map<String, Integer> newPositions = positions(newModel);
+        if (oldPositions == null || newPositions == null) {
+            // Duplicate keys, items cannot be matched reliably.
+            return new GankListDiff(null, true);
+        }
+
+        int lastNewPosition = -1;
+        for (int i = 0; i < oldModel.getItemCount(); i++) {
+            Integer newPosition = newPositions.get(oldModel.getKey(i));
+            if (newPosition == null) {
+                continue;
+            }
+            if (newPosition < lastNewPosition) {
+                return new GankListDiff(null, true);
+            }
+            lastNewPosition = newPosition;
+        }
+
+        List<int[]> ops = new ArrayList<>();
+
+        // Back to front, so every removal is at its position in the old list.
+        int i = oldModel.getItemCount() - 1;
+        while (i >= 0) {
+            if (newPositions.containsKey(oldModel.getKey(i))) {
+                i--;
+                continue;
+            }
+            int end = i;
+            while (i >= 0 && !newPositions.containsKey(oldModel.getKey(i))) {
+                i--;
+            }
+            ops.add(new int[]{REMOVE, i + 1, end - i});
+        }
+
+        // Front to back: once removals are done, everything before j is already in place.
+        int newCount = newModel.getItemCount();
+        int j = 0;
+        while (j < newCount) {
+            if (oldPositions.containsKey(newModel.getKey(j))) {
+                j++;
+                continue;
+            }
+            int start = j;
+            while (j < newCount && !oldPositions.containsKey(newModel.getKey(j))) {
+                j++;
+            }
+            ops.add(new int[]{INSERT, start, j - start});
+        }
+
+        j = 0;
+        while (j < newCount) {
+            Integer oldPosition = oldPositions.get(newModel.getKey(j));
+            if (oldPosition == null || sameContent(oldModel.getGank(oldPosition), newModel.getGank(j))) {
+                j++;
+                continue;
+            }
+            int start = j;
+            do {
+                j++;
+                oldPosition = j < newCount ? oldPositions.get(newModel.getKey(j)) : null;
+            } while (oldPosition != null && !sameContent(oldModel.getGank(oldPosition), newModel.getGank(j)));
+            ops.add(new int[]{CHANGE, start, j - start});
+        }
+
+        return new GankListDiff(ops, false);
+    }
+
+    void dispatchTo(RecyclerView.Adapter<?> adapter) {
+        if (mReordered) {
+            adapter.notifyDataSetChanged();
+            return;
+        }
+        for (int[] op : mOps) {
+            switch (op[0]) {
+                case REMOVE:
+                    adapter.notifyItemRangeRemoved(op[1], op[2]);
+                    break;
+                case INSERT:
+                    adapter.notifyItemRangeInserted(op[1], op[2]);
+                    break;
+                default:
+                    adapter.notifyItemRangeChanged(op[1], op[2]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the position of each key, or null if a key is repeated
+     */
+    private static Map<String, Integer> positions(GanksListModel model) {
+        Map<String, Integer> positions = new HashMap<>(model.getItemCount() * 2);
+        for (int i = 0; i < model.getItemCount(); i++) {
+            if (positions.put(model.getKey(i), i) != null) {
+                return null;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * {@link Gank#equals} only looks at id, title and description; a row also shows these.
+     * Headers are null, and a header's key already says everything it shows.
+     */
+    private static boolean sameContent(Gank oldGank, Gank newGank) {
+        if (oldGank == null || newGank == null) {
+            return oldGank == newGank;
+        }
+        return oldGank.equals(newGank)
+                && oldGank.isCompleted() == newGank.isCompleted()
+                && Objects.equal(oldGank.getType(), newGank.getType())
+                && Objects.equal(oldGank.getUrl(), newGank.getUrl())
+                && Objects.equal(oldGank.getPublishedAt(), newGank.getPublishedAt());
+    }
+}
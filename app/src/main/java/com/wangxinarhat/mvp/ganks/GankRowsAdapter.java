@@ -0,0 +1,71 @@
+package com.wangxinarhat.mvp.ganks;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.base.OnHolderClickListener;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.widget.TextLayoutCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A plain list of ganks, one {@link HolderNormal} row each, for search results and category feeds.
+ */
+public class GankRowsAdapter extends RecyclerView.Adapter<HolderNormal> implements OnHolderClickListener {
+
+    private static final int MAX_TITLE_LAYOUTS = 64;
+
+    private final List<Gank> mGanks = new ArrayList<>();
+
+    private final TextLayoutCache mTitleLayouts = new TextLayoutCache(MAX_TITLE_LAYOUTS);
+
+    private final OnGankClickListener mListener;
+
+    public interface OnGankClickListener {
+        void onGankClick(Gank gank);
+    }
+
+    public GankRowsAdapter(OnGankClickListener listener) {
+        mListener = listener;
+    }
+
+    public void replaceData(List<Gank> ganks) {
+        mGanks.clear();
+        mGanks.addAll(ganks);
+        notifyDataSetChanged();
+    }
+
+    public void appendData(List<Gank> ganks) {
+        int start = mGanks.size();
+        mGanks.addAll(ganks);
+        notifyItemRangeInserted(start, ganks.size());
+    }
+
+    @Override
+    public HolderNormal onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_normal, parent, false);
+        return new HolderNormal(view, this, mTitleLayouts);
+    }
+
+    @Override
+    public void onBindViewHolder(HolderNormal holder, int position) {
+        holder.bindData(mGanks.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return mGanks.size();
+    }
+
+    @Override
+    public void onHolderClick(View itemView, int position) {
+        if (null != mListener && position >= 0 && position < mGanks.size()) {
+            mListener.onGankClick(mGanks.get(position));
+        }
+    }
+}
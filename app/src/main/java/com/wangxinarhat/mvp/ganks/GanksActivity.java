@@ -14,9 +14,12 @@ import android.view.MenuItem;
 import android.widget.FrameLayout;
 
 import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.category.CategoryActivity;
 import com.wangxinarhat.mvp.data.source.GanksRepository;
 import com.wangxinarhat.mvp.data.source.local.GanksLocalDataSource;
 import com.wangxinarhat.mvp.data.source.remote.GanksRemoteDataSource;
+import com.wangxinarhat.mvp.gallery.GalleryActivity;
+import com.wangxinarhat.mvp.search.SearchActivity;
 import com.wangxinarhat.mvp.utils.ActivityUtils;
 
 import java.util.Date;
@@ -87,10 +90,12 @@ public class GanksActivity extends AppCompatActivity
         // Create the presenter
 //        mGanksPresenter = new GanksPresenter(
 //                Injection.provideGanksRepository(getApplicationContext()), ganksFragment);
-        mGanksPresenter = new GanksPresenter(
-                GanksRepository.getInstance(
-                        GanksRemoteDataSource.getInstance(
-                                new Date(System.currentTimeMillis())), GanksLocalDataSource.getInstance(this)), ganksFragment);
+        GanksRepository ganksRepository = GanksRepository.getInstance(
+                GanksRemoteDataSource.getInstance(
+                        new Date(System.currentTimeMillis())), GanksLocalDataSource.getInstance(this));
+        // Show what we have on disk right away and refresh it behind the user's back.
+        ganksRepository.setStaleWhileRevalidate(true);
+        mGanksPresenter = new GanksPresenter(ganksRepository, ganksFragment);
         // Load previously saved state, if available.
         if (savedInstanceState != null) {
             GanksFilterType currentFiltering =
@@ -134,6 +139,9 @@ public class GanksActivity extends AppCompatActivity
         //noinspection SimplifiableIfStatement
         if (id == R.id.action_settings) {
             return true;
+        } else if (id == R.id.action_search) {
+            startActivity(SearchActivity.getIntent());
+            return true;
         }
 
         return super.onOptionsItemSelected(item);
@@ -145,10 +153,12 @@ public class GanksActivity extends AppCompatActivity
         // Handle navigation view item clicks here.
         int id = item.getItemId();
 
-        if (id == R.id.nav_camera) {
+        if (id == R.id.nav_categories) {
+            startActivity(CategoryActivity.getIntent());
+        } else if (id == R.id.nav_camera) {
             // Handle the camera action
         } else if (id == R.id.nav_gallery) {
-
+            startActivity(GalleryActivity.getIntent());
         } else if (id == R.id.nav_slideshow) {
 
         } else if (id == R.id.nav_manage) {
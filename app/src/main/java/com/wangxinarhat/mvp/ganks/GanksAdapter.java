@@ -2,22 +2,30 @@ package com.wangxinarhat.mvp.ganks;
 
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
-import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.orhanobut.logger.Logger;
 import com.wangxinarhat.mvp.R;
 import com.wangxinarhat.mvp.base.BaseHolder;
 import com.wangxinarhat.mvp.base.OnHolderClickListener;
 import com.wangxinarhat.mvp.base.OnItemClickListener;
 import com.wangxinarhat.mvp.data.Gank;
-import com.wangxinarhat.mvp.global.GankCategory;
+import com.wangxinarhat.mvp.utils.DateUtil;
+import com.wangxinarhat.mvp.utils.StringStyleUtils;
+import com.wangxinarhat.mvp.widget.TextLayoutCache;
 
 import java.util.Date;
 import java.util.List;
 
-import static com.google.common.base.Preconditions.checkNotNull;
+import rx.Observer;
+import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
 
 /**
  * Created by wang on 2016/8/1.
@@ -28,39 +36,160 @@ public class GanksAdapter extends RecyclerView.Adapter<BaseHolder> implements On
      * The listener that receives notifications when an item is clicked.
      */
     OnItemClickListener mOnItemClickListener;
-    private List<Gank> mGanks;
+
+    private static final String TAG = GanksAdapter.class.getCanonicalName();
+
+    /**
+     * A few days' worth of rows.
+     */
+    private static final int MAX_TITLE_LAYOUTS = 256;
+
     private GanksItemListener mItemListener;
 
-    public GanksAdapter(List<Gank> ganks, GanksItemListener itemListener) {
-        setList(ganks);
+    /**
+     * What is on screen. Only touched on the main thread.
+     */
+    private GanksListModel mModel = GanksListModel.EMPTY;
+
+    /**
+     * Edits to the list, applied in order off the main thread. Each one builds a new model, which
+     * is diffed against the previous one; only the resulting range notifications are posted back.
+     */
+    private final PublishSubject<Func1<GanksListModel, GanksListModel>> mEdits = PublishSubject.create();
+
+    /**
+     * Layouts of the titles of the rows, built in the edit pipeline once a row has been measured.
+     */
+    private final TextLayoutCache mTitleLayouts = new TextLayoutCache(MAX_TITLE_LAYOUTS);
+
+    /**
+     * The edit pipeline, while the list is shown.
+     */
+    private Subscription mEditsSubscription;
+
+    public GanksAdapter(GanksItemListener itemListener) {
         mItemListener = itemListener;
+        mTitleLayouts.setOnSpecChanged(new Runnable() {
+            @Override
+            public void run() {
+                // Runs the pipeline over the current model, to lay out its titles for the new spec.
+                mEdits.onNext(new Func1<GanksListModel, GanksListModel>() {
+                    @Override
+                    public GanksListModel call(GanksListModel model) {
+                        return model;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Starts applying edits, from the model on screen. Edits made before are dropped.
+     */
+    public void subscribe() {
+        if (mEditsSubscription != null) {
+            return;
+        }
+        mEditsSubscription = mEdits.onBackpressureBuffer()
+                .observeOn(Schedulers.computation())
+                .scan(new Update(mModel, null), new Func2<Update, Func1<GanksListModel, GanksListModel>, Update>() {
+                    @Override
+                    public Update call(Update last, Func1<GanksListModel, GanksListModel> edit) {
+                        GanksListModel next = edit.call(last.model);
+                        prepareTitles(next);
+                        return new Update(next, GankListDiff.calculate(last.model, next));
+                    }
+                })
+                .skip(1)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Observer<Update>() {
+                    @Override
+                    public void onCompleted() {
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        // The failed edit is lost; start over from what is on screen so the next
+                        // ones still get through.
+                        Logger.e(TAG, e.getMessage());
+                        mEditsSubscription = null;
+                        subscribe();
+                    }
+
+                    @Override
+                    public void onNext(Update update) {
+                        mModel = update.model;
+                        update.diff.dispatchTo(GanksAdapter.this);
+                    }
+                });
+    }
+
+    /**
+     * Stops applying edits. What is on screen stays.
+     */
+    public void unsubscribe() {
+        if (mEditsSubscription != null) {
+            mEditsSubscription.unsubscribe();
+            mEditsSubscription = null;
+        }
+    }
+
+    /**
+     * show only {@code day}
+     */
+    public void replaceData(final Date day, final List<Gank> ganks) {
+        mEdits.onNext(new Func1<GanksListModel, GanksListModel>() {
+            @Override
+            public GanksListModel call(GanksListModel model) {
+                return GanksListModel.EMPTY.withDay(DateUtil.toDayKey(day), ganks);
+            }
+        });
+    }
+
+    /**
+     * Inserts {@code day} at its place in the list (newest first), or replaces it if it is
+     * already shown.
+     */
+    public void setDay(final Date day, final List<Gank> ganks) {
+        mEdits.onNext(new Func1<GanksListModel, GanksListModel>() {
+            @Override
+            public GanksListModel call(GanksListModel model) {
+                return model.withDay(DateUtil.toDayKey(day), ganks);
+            }
+        });
     }
 
-    public void replaceData(List<Gank> ganks) {
-        setList(ganks);
-        notifyDataSetChanged();
+    public void removeDay(final Date day) {
+        mEdits.onNext(new Func1<GanksListModel, GanksListModel>() {
+            @Override
+            public GanksListModel call(GanksListModel model) {
+                return model.withoutDay(DateUtil.toDayKey(day));
+            }
+        });
     }
 
-    private void setList(List<Gank> ganks) {
-        mGanks = checkNotNull(ganks);
+    public int getDayCount() {
+        return mModel.getDayCount();
     }
 
     @Override
     public BaseHolder onCreateViewHolder(ViewGroup parent, int viewType) {
 
         View view;
+        // Inflated against the parent so the root's layout params are kept.
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
 
         BaseHolder holder;
         if (viewType == ItemType.ITEM_TYPE_GIRL.ordinal()) {
-            view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_girl, null);
+            view = inflater.inflate(R.layout.item_girl, parent, false);
             holder = new HolderGirl(view, this);
 
         } else if (viewType == ItemType.ITEM_TYPE_CATEGOTY.ordinal()) {
-            view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_category, null);
+            view = inflater.inflate(R.layout.item_category, parent, false);
             holder = new HolderCategory(view, this);
         } else {
-            view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_normal, null);
-            holder = new HolderNormal(view, this);
+            view = inflater.inflate(R.layout.item_normal, parent, false);
+            holder = new HolderNormal(view, this, mTitleLayouts);
         }
 
         return holder;
@@ -69,105 +198,76 @@ public class GanksAdapter extends RecyclerView.Adapter<BaseHolder> implements On
 
     @Override
     public void onBindViewHolder(BaseHolder holder, int position) {
-        if (holder instanceof HolderGirl) {
-            ((HolderGirl) holder).bindData(mGanks.get(position));
-        } else if (holder instanceof HolderCategory) {
-            ((HolderCategory) holder).bindData(mGanks.get(position));
+        if (holder instanceof HolderCategory) {
+            ((HolderCategory) holder).bindData(mModel.getHeaderTitle(position));
+        } else if (holder instanceof HolderGirl) {
+            ((HolderGirl) holder).bindData(mModel.getGank(position));
         } else if (holder instanceof HolderNormal) {
-            ((HolderNormal) holder).bindData(mGanks.get(position));
+            ((HolderNormal) holder).bindData(mModel.getGank(position));
         }
     }
 
     @Override
     public int getItemCount() {
-        return null == mGanks ? 0 : mGanks.size();
+        return mModel.getItemCount();
     }
 
     @Override
     public int getItemViewType(int position) {
-        Gank gank = mGanks.get(position);
-        if (gank.isWelfare()) {
-            return ItemType.ITEM_TYPE_GIRL.ordinal();
-        } else if (gank.isHeader()) {
-            return ItemType.ITEM_TYPE_CATEGOTY.ordinal();
-        } else {
-            return ItemType.ITEM_TYPE_NORMAL.ordinal();
-        }
+        return mModel.getItemViewType(position);
     }
 
 
-    /**
-     * before add data , it will remove history data
-     *
-     * @param data
-     */
-    public void updateWithClear(List<Gank> data) {
-        mGanks.clear();
-        update(data);
+    public void setOnItemClickListener(@Nullable OnItemClickListener listener) {
+        mOnItemClickListener = listener;
     }
 
-    /**
-     * add data append to history data*
-     *
-     * @param data new data
-     */
-    public void update(List<Gank> data) {
-        formatGankData(data);
-        notifyDataSetChanged();
+
+    @Override
+    public void onHolderClick(View itemView, int position) {
+        if (null != mOnItemClickListener) {
+
+            mOnItemClickListener.onItemClick(itemView, position);
+        }
     }
 
     /**
-     * filter list and add category entity into list
-     *
-     * @param data source data
+     * @return the gank at {@code position}, null for a category header
      */
-    private void formatGankData(List<Gank> data) {
-        //Insert headers into list of items.
-        String lastHeader = "";
-        for (int i = 0; i < data.size(); i++) {
-            Gank gank = data.get(i);
-            String header = gank.getType();
-            if (!gank.isWelfare() && !TextUtils.equals(lastHeader, header)) {
-                // Insert new header view.
-                Gank gankHeader = gank.clone();
-                lastHeader = header;
-                gankHeader.setHeader(true);
-                mGanks.add(gankHeader);
-            }
-            gank.setHeader(false);
-            mGanks.add(gank);
-        }
+    @Nullable
+    public Gank getGank(int position) {
+        return mModel.getGank(position);
     }
 
-
     /**
-     * get a init Gank entity
-     *
-     * @return gank entity
+     * @return the yyyyMMdd key of the day whose section holds {@code position}
      */
-    private Gank getDefGankGirl() {
-        Gank gank = new Gank();
-        gank.setPublishedAt(new Date(System.currentTimeMillis()));
-        gank.setUrl("empty");
-        gank.setType(GankCategory.福利.name());
-        return gank;
+    public int getDayKey(int position) {
+        return mModel.getDayKey(position);
     }
 
-
-    public void setOnItemClickListener(@Nullable OnItemClickListener listener) {
-        mOnItemClickListener = listener;
+    /**
+     * Lays out the titles of {@code model} off the main thread, so that binding a row does not.
+     */
+    private void prepareTitles(GanksListModel model) {
+        for (int i = 0; i < model.getItemCount(); i++) {
+            if (model.getItemViewType(i) != ItemType.ITEM_TYPE_NORMAL.ordinal()) {
+                continue;
+            }
+            Gank gank = model.getGank(i);
+            if (gank != null && gank.getId() != null) {
+                mTitleLayouts.prepare(gank.getId(), StringStyleUtils.getGankInfoSequence(gank));
+            }
+        }
     }
 
+    private static final class Update {
+        final GanksListModel model;
+        final GankListDiff diff;
 
-    @Override
-    public void onHolderClick(View itemView, int position) {
-        if (null != mOnItemClickListener) {
-
-            mOnItemClickListener.onItemClick(itemView, position);
+        Update(GanksListModel model, GankListDiff diff) {
+            this.model = model;
+            this.diff = diff;
         }
     }
-
-    public List<Gank> getmGanks() {
-        return mGanks;
-    }
-}
\ No newline at end of file
+}
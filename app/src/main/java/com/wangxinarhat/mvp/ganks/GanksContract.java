@@ -34,7 +34,17 @@ public interface GanksContract {
 
         void setLoadingIndicator(boolean active);
 
-        void showGanks(List<Gank> Ganks);
+        void showGanks(Date day, List<Gank> Ganks);
+
+        /**
+         * add a day to the list, or refresh it if it is already there
+         */
+        void showMoreGanks(Date day, List<Gank> Ganks);
+
+        /**
+         * take a day out of the list, to keep the number of days on screen bounded
+         */
+        void removeGanks(Date day);
 
         void showReloadGank();
 
@@ -73,13 +83,26 @@ public interface GanksContract {
 
         void loadGanks(boolean forceUpdate, Date date);
 
+        /**
+         * the user is close to the bottom of the list, load the day before the oldest one shown
+         */
+        void loadOlderGanks();
+
+        /**
+         * the user is close to the top of the list, load back a newer day dropped from the list
+         */
+        void loadNewerGanks();
+
         void addNewGank();
 
         void openGankDetails(@NonNull Gank requestedGank);
 
-        void completeGank(@NonNull Gank completedGank);
+        /**
+         * @param dayKey yyyyMMdd key of the day whose section holds the gank, which is re-read
+         */
+        void completeGank(int dayKey, @NonNull Gank completedGank);
 
-        void activateGank(@NonNull Gank activeGank);
+        void activateGank(int dayKey, @NonNull Gank activeGank);
 
         void clearCompletedGanks();
 
@@ -44,7 +44,6 @@ import com.wangxinarhat.mvp.data.Gank;
 import com.wangxinarhat.mvp.gankdetail.GankDetailActivity;
 import com.wangxinarhat.mvp.utils.CommonUtils;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -58,6 +57,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class GanksFragment extends Fragment implements GanksContract.View, OnItemClickListener {
 
+    /**
+     * How close, in items, the list may get to either end before the next day is requested.
+     */
+    private static final int PREFETCH_DISTANCE = 5;
+
+    /**
+     * Welfare pictures to keep decoded ahead of the scroll.
+     */
+    private static final int PRELOAD_WELFARE = 2;
+
     @BindView(R.id.filteringLabel)
     TextView mFilteringLabel;
     @BindView(R.id.recycler)
@@ -80,6 +89,11 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
 
     private GanksAdapter mAdapter;
 
+    /**
+     * Outlives the fragment's views, so holders survive going through the back stack.
+     */
+    private GanksViewPool mViewPool;
+
     public GanksFragment() {
         // Requires empty public constructor
     }
@@ -91,7 +105,8 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        mAdapter = new GanksAdapter(new ArrayList<Gank>(0), mItemListener);
+        mAdapter = new GanksAdapter(mItemListener);
+        mViewPool = new GanksViewPool();
     }
 
     //presenter开始获取数据并调用view中方法改变界面显示，其调用时机是在Fragment类的onResume方法中
@@ -128,8 +143,30 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
         // Set up ganks view
         final LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
         mRecycler.setLayoutManager(layoutManager);
+        mRecycler.setRecycledViewPool(mViewPool);
+        mAdapter.subscribe();
         mRecycler.setAdapter(mAdapter);
+        // The first page is loaded from onResume, inflate its rows while waiting for it.
+        mViewPool.prewarm(mRecycler, mAdapter);
         mAdapter.setOnItemClickListener(this);
+        mRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    int lastVisible = layoutManager.findLastVisibleItemPosition();
+                    if (lastVisible + PREFETCH_DISTANCE >= layoutManager.getItemCount()) {
+                        mPresenter.loadOlderGanks();
+                    }
+                } else if (dy < 0) {
+                    int firstVisible = layoutManager.findFirstVisibleItemPosition();
+                    if (firstVisible != RecyclerView.NO_POSITION && firstVisible <= PREFETCH_DISTANCE) {
+                        mPresenter.loadNewerGanks();
+                    }
+                }
+            }
+        });
+
+        mRecycler.addOnScrollListener(new WelfarePreloader(layoutManager, mAdapter, PRELOAD_WELFARE));
 
         // Set up  no ganks view
         mNoGanksAdd.setOnClickListener(new View.OnClickListener() {
@@ -172,6 +209,13 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
         return root;
     }
 
+    @Override
+    public void onDestroyView() {
+        mViewPool.cancelPrewarm();
+        mAdapter.unsubscribe();
+        super.onDestroyView();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         switch (item.getItemId()) {
@@ -231,13 +275,13 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
         }
 
         @Override
-        public void onCompleteGankClick(Gank completedGank) {
-            mPresenter.completeGank(completedGank);
+        public void onCompleteGankClick(int dayKey, Gank completedGank) {
+            mPresenter.completeGank(dayKey, completedGank);
         }
 
         @Override
-        public void onActivateGankClick(Gank activatedGank) {
-            mPresenter.activateGank(activatedGank);
+        public void onActivateGankClick(int dayKey, Gank activatedGank) {
+            mPresenter.activateGank(dayKey, activatedGank);
         }
     };
 
@@ -257,13 +301,23 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
     }
 
     @Override
-    public void showGanks(List<Gank> ganks) {
-        mAdapter.replaceData(ganks);
+    public void showGanks(Date day, List<Gank> ganks) {
+        mAdapter.replaceData(day, ganks);
 
         mGanksContainer.setVisibility(View.VISIBLE);
         mNoGanks.setVisibility(View.GONE);
     }
 
+    @Override
+    public void showMoreGanks(Date day, List<Gank> ganks) {
+        mAdapter.setDay(day, ganks);
+    }
+
+    @Override
+    public void removeGanks(Date day) {
+        mAdapter.removeDay(day);
+    }
+
     @Override
     public void showNoActiveGanks() {
         showNoGanksViews(
@@ -373,8 +427,11 @@ public class GanksFragment extends Fragment implements GanksContract.View, OnIte
     @Override
     public void onItemClick(View itemView, int position) {
 
-        Gank gank = mAdapter.getmGanks().get(position);
-
+        Gank gank = mAdapter.getGank(position);
+        if (gank == null) {
+            // A category header
+            return;
+        }
         showGankDetailsUi(mAdapter.getItemViewType(position), gank.getUrl(), gank.getTitle());
     }
 }
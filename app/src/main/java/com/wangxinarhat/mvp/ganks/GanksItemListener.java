@@ -10,9 +10,12 @@ public interface GanksItemListener {
 
         void onGankClick(Gank clickedGank);
 
-        void onCompleteGankClick(Gank completedGank);
+        /**
+         * @param dayKey yyyyMMdd key of the day whose section holds the gank
+         */
+        void onCompleteGankClick(int dayKey, Gank completedGank);
 
-        void onActivateGankClick(Gank activatedGank);
+        void onActivateGankClick(int dayKey, Gank activatedGank);
     
 
 }
@@ -0,0 +1,210 @@
+package com.wangxinarhat.mvp.ganks;
+
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.global.GankCategory;
+import com.wangxinarhat.mvp.utils.StringStyleUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What {@link GanksAdapter} shows: days, newest first, each split into one section per category
+ * with a header row in front. The welfare picture of a day has no header.
+ * <p>
+ * Immutable. Everything the adapter asks for by position is laid out in arrays when the model is
+ * built, so it should be built off the main thread; the ganks themselves are neither copied nor
+ * modified, and headers are not ganks.
+ */
+final class GanksListModel {
+
+    static final GanksListModel EMPTY = new GanksListModel(new int[0], Collections.<List<Gank>>emptyList());
+
+    private static final int NO_GANK = -1;
+
+    private static final String WELFARE = GankCategory.福利.name();
+
+    /**
+     * Before the first header of a day; compared by identity, so it matches no category.
+     */
+    private static final String NO_HEADER = new String("");
+
+    /**
+     * Shown days as yyyyMMdd keys, and their ganks.
+     */
+    private final int[] mDayKeys;
+    private final List<List<Gank>> mDays;
+
+    // One entry per gank, across all days
+    private final Gank[] mGanks;
+
+    // One entry per adapter position
+    private final int[] mViewTypes;
+    private final int[] mGankIndexes;
+    private final String[] mHeaderTitles;
+    private final String[] mKeys;
+    private final int[] mItemDays;
+
+    private GanksListModel(int[] dayKeys, List<List<Gank>> days) {
+        mDayKeys = dayKeys;
+        mDays = days;
+
+        int gankCount = 0;
+        int itemCount = 0;
+        for (List<Gank> ganks : days) {
+            gankCount += ganks.size();
+            itemCount += ganks.size() + countHeaders(ganks);
+        }
+        mGanks = new Gank[gankCount];
+        mViewTypes = new int[itemCount];
+        mGankIndexes = new int[itemCount];
+        mHeaderTitles = new String[itemCount];
+        mKeys = new String[itemCount];
+        mItemDays = new int[itemCount];
+
+        int gankIndex = 0;
+        int position = 0;
+        for (int d = 0; d < days.size(); d++) {
+            String lastHeader = NO_HEADER;
+            for (Gank gank : days.get(d)) {
+                String type = gank.getType();
+                boolean welfare = WELFARE.equals(type);
+                if (!welfare && startsSection(lastHeader, type)) {
+                    lastHeader = type;
+                    mViewTypes[position] = ItemType.ITEM_TYPE_CATEGOTY.ordinal();
+                    mGankIndexes[position] = NO_GANK;
+                    mHeaderTitles[position] = type;
+                    // Headers are keyed by category, there is one per category and day.
+                    mKeys[position] = dayKeys[d] + "#" + type;
+                    mItemDays[position] = d;
+                    position++;
+                }
+                if (!welfare) {
+                    // Models are built off the main thread, style the row now rather than on bind.
+                    StringStyleUtils.getGankInfoSequence(gank);
+                }
+                mGanks[gankIndex] = gank;
+                mViewTypes[position] = (welfare ? ItemType.ITEM_TYPE_GIRL : ItemType.ITEM_TYPE_NORMAL).ordinal();
+                mGankIndexes[position] = gankIndex;
+                mKeys[position] = dayKeys[d] + "/" + gank.getId();
+                mItemDays[position] = d;
+                gankIndex++;
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Inserts {@code day} at its place, newest first, or replaces it if it is already there.
+     */
+    GanksListModel withDay(int dayKey, List<Gank> ganks) {
+        List<List<Gank>> days = new ArrayList<>(mDays);
+        List<Gank> copy = Collections.unmodifiableList(new ArrayList<>(ganks));
+        int index = indexOfDay(dayKey);
+        if (index >= 0) {
+            days.set(index, copy);
+            return new GanksListModel(mDayKeys, Collections.unmodifiableList(days));
+        }
+        index = 0;
+        while (index < mDayKeys.length && mDayKeys[index] > dayKey) {
+            index++;
+        }
+        int[] dayKeys = new int[mDayKeys.length + 1];
+        System.arraycopy(mDayKeys, 0, dayKeys, 0, index);
+        dayKeys[index] = dayKey;
+        System.arraycopy(mDayKeys, index, dayKeys, index + 1, mDayKeys.length - index);
+        days.add(index, copy);
+        return new GanksListModel(dayKeys, Collections.unmodifiableList(days));
+    }
+
+    GanksListModel withoutDay(int dayKey) {
+        int index = indexOfDay(dayKey);
+        if (index < 0) {
+            return this;
+        }
+        List<List<Gank>> days = new ArrayList<>(mDays);
+        days.remove(index);
+        int[] dayKeys = new int[mDayKeys.length - 1];
+        System.arraycopy(mDayKeys, 0, dayKeys, 0, index);
+        System.arraycopy(mDayKeys, index + 1, dayKeys, index, dayKeys.length - index);
+        return new GanksListModel(dayKeys, Collections.unmodifiableList(days));
+    }
+
+    int getItemCount() {
+        return mViewTypes.length;
+    }
+
+    int getDayCount() {
+        return mDayKeys.length;
+    }
+
+    int getItemViewType(int position) {
+        return mViewTypes[position];
+    }
+
+    /**
+     * @return the gank at {@code position}, null for a header
+     */
+    @Nullable
+    Gank getGank(int position) {
+        int gankIndex = mGankIndexes[position];
+        return gankIndex == NO_GANK ? null : mGanks[gankIndex];
+    }
+
+    /**
+     * @return the category of the header at {@code position}, null for a gank
+     */
+    @Nullable
+    String getHeaderTitle(int position) {
+        return mHeaderTitles[position];
+    }
+
+    /**
+     * @return the yyyyMMdd key of the day whose section holds {@code position}
+     */
+    int getDayKey(int position) {
+        return mDayKeys[mItemDays[position]];
+    }
+
+    /**
+     * @return what identifies the item at {@code position} across models, for diffing
+     */
+    String getKey(int position) {
+        return mKeys[position];
+    }
+
+    private int indexOfDay(int dayKey) {
+        for (int i = 0; i < mDayKeys.length; i++) {
+            if (mDayKeys[i] == dayKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsSection(String lastHeader, String type) {
+        return lastHeader == NO_HEADER || !Objects.equal(lastHeader, type);
+    }
+
+    private static int countHeaders(List<Gank> ganks) {
+        int headers = 0;
+        String lastHeader = NO_HEADER;
+        for (Gank gank : ganks) {
+            String type = gank.getType();
+            if (!WELFARE.equals(type) && startsSection(lastHeader, type)) {
+                lastHeader = type;
+                headers++;
+            }
+        }
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return "GanksListModel[days=" + Arrays.toString(mDayKeys) + ",items=" + mViewTypes.length + "]";
+    }
+}
@@ -17,19 +17,26 @@
 package com.wangxinarhat.mvp.ganks;
 
 import android.support.annotation.NonNull;
+import android.support.v4.util.Pair;
 
 import com.orhanobut.logger.Logger;
 import com.wangxinarhat.mvp.data.Gank;
 import com.wangxinarhat.mvp.data.source.GanksDataSource;
 import com.wangxinarhat.mvp.data.source.GanksRepository;
+import com.wangxinarhat.mvp.ganks.opreators.NewestNonEmptyDay;
+import com.wangxinarhat.mvp.utils.DateUtil;
 import com.wangxinarhat.mvp.utils.EspressoIdlingResource;
 
+import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedList;
 import java.util.List;
 
+import rx.Observable;
 import rx.Observer;
 import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 import rx.subscriptions.CompositeSubscription;
 
@@ -43,7 +50,28 @@ public class GanksPresenter implements GanksContract.Presenter {
 
     private static final String TAG = GanksPresenter.class.getCanonicalName();
 
-    private static final int DAY_OF_MILLISECOND = 24 * 60 * 60 * 1000;
+    /**
+     * How many days, today included, to look through for the latest issue.
+     */
+    private static final int BACKFILL_DAYS = 3;
+
+    /**
+     * How many of those days may be requested at the same time.
+     */
+    private static final int BACKFILL_MAX_CONCURRENT = 3;
+
+    /**
+     * Days kept in the list while scrolling; the farthest one from where the user is reading is
+     * dropped past this and loaded again if the user scrolls back to it.
+     */
+    private static final int MAX_DAYS_ON_SCREEN = 7;
+
+    /**
+     * How many empty backfill windows in a row to go through before deciding there is nothing
+     * older, e.g. for the Spring Festival break.
+     */
+    private static final int MAX_EMPTY_LOOKBACKS = 5;
+
     private final GanksRepository mGanksRepository;
 
     private final GanksContract.View mGanksView;
@@ -53,11 +81,38 @@ public class GanksPresenter implements GanksContract.Presenter {
     private boolean mFirstLoad = true;
     private CompositeSubscription mSubscriptions;
 
+    /**
+     * Paging loads, kept apart so they do not cancel the load of the first day and vice versa.
+     */
+    private CompositeSubscription mPagingSubscriptions;
+
+    /**
+     * Days in the list, newest first.
+     */
+    private final LinkedList<Date> mDaysOnScreen = new LinkedList<>();
+
+    /**
+     * Newer days dropped from the top of the list, the most recently dropped first.
+     */
+    private final LinkedList<Date> mDroppedNewerDays = new LinkedList<>();
+
+    /**
+     * Where the search for the next older day starts.
+     */
+    private Date mOlderFrom;
+
+    private boolean mLoadingOlder;
+
+    private boolean mLoadingNewer;
+
+    private int mEmptyLookbacks;
+
 
     public GanksPresenter(@NonNull GanksRepository ganksRepository, @NonNull GanksContract.View ganksView) {
         mGanksRepository = checkNotNull(ganksRepository, "ganksRepository cannot be null");
         mGanksView = checkNotNull(ganksView, "ganksView cannot be null!");
         mSubscriptions = new CompositeSubscription();
+        mPagingSubscriptions = new CompositeSubscription();
         mGanksView.setPresenter(this);
     }
 
@@ -69,6 +124,9 @@ public class GanksPresenter implements GanksContract.Presenter {
     @Override
     public void unsubscribe() {
         mSubscriptions.clear();
+        mPagingSubscriptions.clear();
+        mLoadingOlder = false;
+        mLoadingNewer = false;
     }
 
     @Override
@@ -88,6 +146,9 @@ public class GanksPresenter implements GanksContract.Presenter {
     }
 
 
+    /**
+     * The day on screen, the one the backfill picked.
+     */
     private Date mCurrentDate = new Date(System.currentTimeMillis());
 
     /**
@@ -108,8 +169,10 @@ public class GanksPresenter implements GanksContract.Presenter {
         EspressoIdlingResource.increment(); // App is busy until further notice
 
         mSubscriptions.clear();
-        Subscription subscription = mGanksRepository
-                .getGanks(date)
+        // The backfill hands over the list it loaded for the day it picked, and the revalidated
+        // one after it if the day was stale, so the day is not asked for again.
+        Subscription subscription = NewestNonEmptyDay
+                .find(mGanksRepository, date, BACKFILL_DAYS, BACKFILL_MAX_CONCURRENT)
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(getObserver());
@@ -118,9 +181,12 @@ public class GanksPresenter implements GanksContract.Presenter {
 
     }
 
-    private Observer<? super List<Gank>> getObserver() {
+    private Observer<? super Pair<Date, List<Gank>>> getObserver() {
+
+        Observer<Pair<Date, List<Gank>>> observer = new Observer<Pair<Date, List<Gank>>>() {
+
+            private boolean mShown;
 
-        Observer<List<Gank>> observer = new Observer<List<Gank>>() {
             @Override
             public void onCompleted() {
                 mGanksView.setLoadingIndicator(false);
@@ -133,34 +199,219 @@ public class GanksPresenter implements GanksContract.Presenter {
             }
 
             @Override
-            public void onNext(List<Gank> ganks) {
-                processGanks(ganks);
+            public void onNext(Pair<Date, List<Gank>> dayGanks) {
+                List<Gank> ganks = dayGanks.second;
+                mCurrentDate = dayGanks.first;
+                if (mShown && !ganks.isEmpty()) {
+                    // Revalidated copy of the day already on screen, older days stay.
+                    mGanksView.showMoreGanks(mCurrentDate, ganks);
+                } else {
+                    processGanks(ganks);
+                }
+                mShown = !ganks.isEmpty();
             }
         };
 
         return observer;
     }
 
-    private int preDay = 1;
-
     private void processGanks(List<Gank> ganks) {
+        mPagingSubscriptions.clear();
+        mLoadingOlder = false;
+        mLoadingNewer = false;
+        mDaysOnScreen.clear();
+        mDroppedNewerDays.clear();
+        mEmptyLookbacks = 0;
+        mOlderFrom = DateUtil.getLastdayDate(mCurrentDate);
+
         if (ganks.isEmpty()) {
             // Show a message indicating there are no ganks for that filter type.
-                processEmptyGanks();
-            if (3 > preDay) {
-                loadGanks(false, new Date(mCurrentDate.getTime() -  DAY_OF_MILLISECOND), true);
-                preDay++;
-            } else {
-                processEmptyGanks();
-            }
+            processEmptyGanks();
         } else {
+            mDaysOnScreen.add(mCurrentDate);
             // Show the list of ganks
-            mGanksView.showGanks(ganks);
+            mGanksView.showGanks(mCurrentDate, ganks);
             // Set the filter label's text.
             showFilterLabel();
         }
     }
 
+    @Override
+    public void loadOlderGanks() {
+        if (mLoadingOlder || mDaysOnScreen.isEmpty() || mEmptyLookbacks >= MAX_EMPTY_LOOKBACKS) {
+            return;
+        }
+        mLoadingOlder = true;
+        Subscription subscription = findOlderDay(mOlderFrom, mEmptyLookbacks)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Observer<Pair<Date, List<Gank>>>() {
+                    @Override
+                    public void onCompleted() {
+                        mLoadingOlder = false;
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        Logger.e(TAG, e.getMessage());
+                        mLoadingOlder = false;
+                    }
+
+                    @Override
+                    public void onNext(Pair<Date, List<Gank>> dayGanks) {
+                        if (dayGanks.second.isEmpty()) {
+                            // Every window was empty, there is nothing older.
+                            mEmptyLookbacks = MAX_EMPTY_LOOKBACKS;
+                            return;
+                        }
+                        mEmptyLookbacks = 0;
+                        showOlderDay(dayGanks.first, dayGanks.second);
+                    }
+                });
+        mPagingSubscriptions.add(subscription);
+    }
+
+    /**
+     * The newest day with ganks from {@code from} back, going through empty windows one after the
+     * other in the same load, so that only one older load is ever running.
+     *
+     * @param emptyLookbacks how many empty windows were already gone through
+     * @return no ganks once {@link #MAX_EMPTY_LOOKBACKS} windows in a row were empty
+     */
+    private Observable<Pair<Date, List<Gank>>> findOlderDay(final Date from, final int emptyLookbacks) {
+        return NewestNonEmptyDay
+                .find(mGanksRepository, from, BACKFILL_DAYS, BACKFILL_MAX_CONCURRENT)
+                .concatMap(new Func1<Pair<Date, List<Gank>>, Observable<Pair<Date, List<Gank>>>>() {
+                    @Override
+                    public Observable<Pair<Date, List<Gank>>> call(Pair<Date, List<Gank>> dayGanks) {
+                        if (!dayGanks.second.isEmpty() || emptyLookbacks + 1 >= MAX_EMPTY_LOOKBACKS) {
+                            return Observable.just(dayGanks);
+                        }
+                        // The whole window was empty, keep looking further back.
+                        return findOlderDay(daysBefore(from, BACKFILL_DAYS), emptyLookbacks + 1);
+                    }
+                });
+    }
+
+    @Override
+    public void loadNewerGanks() {
+        if (mLoadingNewer || mDroppedNewerDays.isEmpty()) {
+            return;
+        }
+        mLoadingNewer = true;
+        final Date day = mDroppedNewerDays.getFirst();
+        Subscription subscription = mGanksRepository
+                .getGanks(day)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Observer<List<Gank>>() {
+                    @Override
+                    public void onCompleted() {
+                        mLoadingNewer = false;
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        Logger.e(TAG, e.getMessage());
+                        mLoadingNewer = false;
+                    }
+
+                    @Override
+                    public void onNext(List<Gank> ganks) {
+                        mDroppedNewerDays.remove(day);
+                        showNewerDay(day, ganks);
+                    }
+                });
+        mPagingSubscriptions.add(subscription);
+    }
+
+    private void showOlderDay(Date day, List<Gank> ganks) {
+        mGanksView.showMoreGanks(day, ganks);
+        if (containsDay(mDaysOnScreen, day)) {
+            return;
+        }
+        mDaysOnScreen.addLast(day);
+        mOlderFrom = DateUtil.getLastdayDate(day);
+        while (mDaysOnScreen.size() > MAX_DAYS_ON_SCREEN) {
+            Date dropped = mDaysOnScreen.removeFirst();
+            mDroppedNewerDays.addFirst(dropped);
+            mGanksView.removeGanks(dropped);
+        }
+    }
+
+    private void showNewerDay(Date day, List<Gank> ganks) {
+        mGanksView.showMoreGanks(day, ganks);
+        if (containsDay(mDaysOnScreen, day)) {
+            return;
+        }
+        mDaysOnScreen.addFirst(day);
+        while (mDaysOnScreen.size() > MAX_DAYS_ON_SCREEN) {
+            Date dropped = mDaysOnScreen.removeLast();
+            // It has ganks, so it is where the next older load should start.
+            mOlderFrom = dropped;
+            mEmptyLookbacks = 0;
+            mGanksView.removeGanks(dropped);
+        }
+    }
+
+    /**
+     * Reloads one day in place, so editing a gank does not reset the days loaded while scrolling.
+     */
+    private void refreshDay(final Date day) {
+        Subscription subscription = mGanksRepository
+                .getGanks(day)
+                .first()
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Observer<List<Gank>>() {
+                    @Override
+                    public void onCompleted() {
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        Logger.e(TAG, e.getMessage());
+                        mGanksView.showLoadingGanksError();
+                    }
+
+                    @Override
+                    public void onNext(List<Gank> ganks) {
+                        mGanksView.showMoreGanks(day, ganks);
+                    }
+                });
+        mPagingSubscriptions.add(subscription);
+    }
+
+    /**
+     * Re-reads the section of {@code dayKey}, if it is still in the list. The issue a gank is
+     * shown under is not always the day of its publishedAt.
+     */
+    private void refreshDayOnScreen(int dayKey) {
+        for (Date day : mDaysOnScreen) {
+            if (DateUtil.toDayKey(day) == dayKey) {
+                refreshDay(day);
+                return;
+            }
+        }
+    }
+
+    private static boolean containsDay(List<Date> days, Date day) {
+        int dayKey = DateUtil.toDayKey(day);
+        for (Date d : days) {
+            if (DateUtil.toDayKey(d) == dayKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Date daysBefore(Date date, int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.add(Calendar.DATE, -days);
+        return calendar.getTime();
+    }
+
     private void showFilterLabel() {
         switch (mCurrentFiltering) {
             case ACTIVE_GANKS:
@@ -201,19 +452,19 @@ public class GanksPresenter implements GanksContract.Presenter {
     }
 
     @Override
-    public void completeGank(@NonNull Gank completedGank) {
+    public void completeGank(int dayKey, @NonNull Gank completedGank) {
         checkNotNull(completedGank, "completedGank cannot be null!");
         mGanksRepository.completeGank(completedGank);
         mGanksView.showGankMarkedComplete();
-        loadGanks(false, mCurrentDate, false);
+        refreshDayOnScreen(dayKey);
     }
 
     @Override
-    public void activateGank(@NonNull Gank activeGank) {
+    public void activateGank(int dayKey, @NonNull Gank activeGank) {
         checkNotNull(activeGank, "activeGank cannot be null!");
         mGanksRepository.activateGank(activeGank);
         mGanksView.showGankMarkedActive();
-        loadGanks(false, mCurrentDate, false);
+        refreshDayOnScreen(dayKey);
     }
 
     @Override
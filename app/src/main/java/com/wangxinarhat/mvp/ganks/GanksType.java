@@ -19,6 +19,8 @@
 
 package com.wangxinarhat.mvp.ganks;
 
+import com.wangxinarhat.mvp.api.GankService;
+
 /**
  *
  * @author wangxinarhat
@@ -32,5 +34,12 @@ public enum GanksType {
     拓展资源,
     瞎推荐,
     休息视频,
-    ALL_GankS
+    ALL_GankS;
+
+    /**
+     * @return the category the backend knows this type by
+     */
+    public String category() {
+        return this == ALL_GankS ? GankService.CATEGORY_ALL : name();
+    }
 }
@@ -0,0 +1,85 @@
+package com.wangxinarhat.mvp.ganks;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * View pool for lists of ganks, sized per {@link ItemType}, that can be warmed up with the holders
+ * of the first screen before the data arrives.
+ * <p>
+ * A day has one picture, a handful of category headers and a dozen or so ganks. Share one pool
+ * between all the lists of an activity; it holds views, so do not keep it longer than that.
+ */
+public class GanksViewPool extends RecyclerView.RecycledViewPool {
+
+    private static final int MAX_GIRLS = 2;
+    private static final int MAX_CATEGORIES = 8;
+    private static final int MAX_NORMALS = 16;
+
+    /**
+     * Holders to create ahead of time, in this order: what a phone shows of a day on first load.
+     */
+    private static final int[] PREWARM_TYPES = prewarmTypes(1, 4, 10);
+
+    private MessageQueue.IdleHandler mPrewarm;
+
+    public GanksViewPool() {
+        setMaxRecycledViews(ItemType.ITEM_TYPE_GIRL.ordinal(), MAX_GIRLS);
+        setMaxRecycledViews(ItemType.ITEM_TYPE_CATEGOTY.ordinal(), MAX_CATEGORIES);
+        setMaxRecycledViews(ItemType.ITEM_TYPE_NORMAL.ordinal(), MAX_NORMALS);
+    }
+
+    /**
+     * Inflates the first screen's holders into this pool, one per idle pass of the main thread,
+     * i.e. while the first page is still loading. Stops as soon as {@code adapter} has items, since
+     * by then the list has inflated what it needed. Call from the main thread.
+     * <p>
+     * The support library in use has no AsyncLayoutInflater, and views must be created on the
+     * thread that uses them, so this is spread over idle time rather than run in the background.
+     */
+    public void prewarm(@NonNull final RecyclerView recycler, @NonNull final RecyclerView.Adapter<?> adapter) {
+        checkNotNull(recycler);
+        checkNotNull(adapter);
+        cancelPrewarm();
+        mPrewarm = new MessageQueue.IdleHandler() {
+
+            private int mNext;
+
+            @Override
+            public boolean queueIdle() {
+                if (mPrewarm != this || adapter.getItemCount() > 0 || mNext >= PREWARM_TYPES.length) {
+                    return false;
+                }
+                putRecycledView(adapter.createViewHolder(recycler, PREWARM_TYPES[mNext++]));
+                return true;
+            }
+        };
+        Looper.myQueue().addIdleHandler(mPrewarm);
+    }
+
+    public void cancelPrewarm() {
+        if (mPrewarm != null) {
+            Looper.myQueue().removeIdleHandler(mPrewarm);
+            mPrewarm = null;
+        }
+    }
+
+    private static int[] prewarmTypes(int girls, int categories, int normals) {
+        int[] types = new int[girls + categories + normals];
+        int i = 0;
+        while (i < girls) {
+            types[i++] = ItemType.ITEM_TYPE_GIRL.ordinal();
+        }
+        while (i < girls + categories) {
+            types[i++] = ItemType.ITEM_TYPE_CATEGOTY.ordinal();
+        }
+        while (i < types.length) {
+            types[i++] = ItemType.ITEM_TYPE_NORMAL.ordinal();
+        }
+        return types;
+    }
+}
@@ -6,7 +6,6 @@ import android.widget.TextView;
 import com.wangxinarhat.mvp.R;
 import com.wangxinarhat.mvp.base.BaseHolder;
 import com.wangxinarhat.mvp.base.OnHolderClickListener;
-import com.wangxinarhat.mvp.data.Gank;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
@@ -14,7 +13,7 @@ import butterknife.ButterKnife;
 /**
  * Created by wang on 2016/7/22.
  */
-public class HolderCategory extends BaseHolder<Gank> {
+public class HolderCategory extends BaseHolder<String> {
     @BindView(R.id.item_category_text)
     TextView mTvCategory;
     public HolderCategory(View itemView,OnHolderClickListener listener) {
@@ -22,9 +21,9 @@ public class HolderCategory extends BaseHolder<Gank> {
     }
 
     @Override
-    public void bindData(Gank gank) {
+    public void bindData(String category) {
 
-        mTvCategory.setText(gank.getType());
+        mTvCategory.setText(category);
     }
 
 
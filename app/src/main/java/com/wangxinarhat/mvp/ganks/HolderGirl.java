@@ -12,7 +12,6 @@ import com.wangxinarhat.mvp.utils.GlideUtils;
 import com.wangxinarhat.mvp.widget.RatioImageView;
 
 import butterknife.BindView;
-import butterknife.ButterKnife;
 
 /**
  * Created by wang on 2016/7/22.
@@ -27,7 +26,6 @@ public class HolderGirl extends BaseHolder<Gank> {
 
     public HolderGirl(View itemView, OnHolderClickListener listener) {
         super(itemView, listener);
-        ButterKnife.bind(this, itemView);
         mImageView.setOriginalSize(200, 100);
     }
 
@@ -36,9 +34,7 @@ public class HolderGirl extends BaseHolder<Gank> {
         mGank = gank;
         mTvTime.setText(DateUtil.toDate(gank.getPublishedAt()));
 
-        GlideUtils.loadImage(gank.getUrl(), mImageView);
-
-        mTvTime.setText(DateUtil.toDate(gank.getPublishedAt()));
+        GlideUtils.loadWelfare(gank.getUrl(), mImageView);
     }
 
 
@@ -0,0 +1,126 @@
+package com.wangxinarhat.mvp.ganks;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import com.bumptech.glide.Glide;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.utils.GlideUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Scroll listener for a list of ganks that keeps the welfare pictures ahead of the scroll decoded,
+ * and holds image loads back during flings.
+ * <p>
+ * There is one picture per day, far apart in the list, so the next {@code ahead} pictures in the
+ * direction of the scroll are preloaded rather than a fixed number of positions. They are decoded
+ * at the size of a picture on screen, which is only known once one has been laid out; until then
+ * nothing is preloaded.
+ * <p>
+ * While the list settles after a fling, rows fly past faster than their pictures can be shown, so
+ * requests are paused and resumed once it stops or is touched again.
+ */
+public class WelfarePreloader extends RecyclerView.OnScrollListener {
+
+    /**
+     * Recently preloaded urls, so each scroll event does not request them again.
+     */
+    private static final int MAX_REMEMBERED = 16;
+
+    private final LinearLayoutManager mLayoutManager;
+    private final GanksAdapter mAdapter;
+    private final int mAhead;
+
+    private final Deque<String> mPreloaded = new ArrayDeque<>(MAX_REMEMBERED);
+
+    private int mWidth;
+    private int mHeight;
+    private boolean mPaused;
+
+    public WelfarePreloader(@NonNull LinearLayoutManager layoutManager, @NonNull GanksAdapter adapter, int ahead) {
+        checkArgument(ahead > 0, "ahead must be positive");
+        mLayoutManager = checkNotNull(layoutManager);
+        mAdapter = checkNotNull(adapter);
+        mAhead = ahead;
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+            if (!mPaused) {
+                Glide.with(recyclerView.getContext()).pauseRequests();
+                mPaused = true;
+            }
+        } else if (mPaused) {
+            Glide.with(recyclerView.getContext()).resumeRequests();
+            mPaused = false;
+        }
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        measure(recyclerView);
+        if (mWidth <= 0 || mHeight <= 0) {
+            return;
+        }
+
+        int step = dy < 0 ? -1 : 1;
+        int position = step > 0 ? mLayoutManager.findLastVisibleItemPosition() : mLayoutManager.findFirstVisibleItemPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        int count = mAdapter.getItemCount();
+        int found = 0;
+        for (position += step; found < mAhead && position >= 0 && position < count; position += step) {
+            if (mAdapter.getItemViewType(position) != ItemType.ITEM_TYPE_GIRL.ordinal()) {
+                continue;
+            }
+            found++;
+            Gank gank = mAdapter.getGank(position);
+            if (gank != null && gank.getUrl() != null) {
+                preload(recyclerView, gank.getUrl());
+            }
+        }
+    }
+
+    private void preload(RecyclerView recyclerView, String url) {
+        if (mPreloaded.contains(url)) {
+            return;
+        }
+        if (mPreloaded.size() == MAX_REMEMBERED) {
+            mPreloaded.removeFirst();
+        }
+        mPreloaded.addLast(url);
+        GlideUtils.preloadWelfare(recyclerView.getContext(), url, mWidth, mHeight);
+    }
+
+    /**
+     * Takes the size of a picture from one on screen, which is what {@link HolderGirl} loads for.
+     */
+    private void measure(RecyclerView recyclerView) {
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            View child = recyclerView.getChildAt(i);
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(child);
+            if (holder instanceof HolderGirl) {
+                View image = ((HolderGirl) holder).mImageView;
+                if (image.getWidth() > 0 && image.getHeight() > 0) {
+                    if (image.getWidth() != mWidth || image.getHeight() != mHeight) {
+                        // Pictures preloaded at the old size would not be used.
+                        mPreloaded.clear();
+                        mWidth = image.getWidth();
+                        mHeight = image.getHeight();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
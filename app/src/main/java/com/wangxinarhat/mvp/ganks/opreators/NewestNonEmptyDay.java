@@ -0,0 +1,134 @@
+package com.wangxinarhat.mvp.ganks.opreators;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.Pair;
+
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.source.GanksDataSource;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.subjects.BehaviorSubject;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds the newest day, among {@code from} and the days before it, that has ganks. There is no
+ * issue on weekends and holidays, so the first screen often has to look back a few days.
+ * <p>
+ * The days are requested concurrently, newest first and at most {@code maxConcurrent} at a time.
+ * A day wins once it has ganks and every newer day is known to be empty; the requests for the
+ * other days are then unsubscribed. The winning day's request is kept, so a list it revalidates
+ * afterwards comes through too and the day does not have to be asked for again. A day that fails
+ * to load is not taken for an empty one: unless a newer day already won, its error ends the
+ * search, so that going offline shows an error rather than an older issue.
+ */
+public class NewestNonEmptyDay {
+
+    /**
+     * @return the winning day with its ganks, then with every later list of its request; or
+     * {@code from} with no ganks if none of the days has any; the error of the newest day that
+     * failed, if every day newer than it is empty
+     */
+    public static Observable<Pair<Date, List<Gank>>> find(@NonNull final GanksDataSource source,
+                                                          @NonNull final Date from,
+                                                          final int days, final int maxConcurrent) {
+        checkNotNull(source);
+        checkNotNull(from);
+        checkArgument(days > 0, "days must be positive");
+
+        return Observable.defer(new Func0<Observable<Pair<Date, List<Gank>>>>() {
+            @Override
+            public Observable<Pair<Date, List<Gank>>> call() {
+                // Only touched downstream of flatMap, which serializes its emissions.
+                final DayResult[] results = new DayResult[days];
+                // Replays the winner to the requests that only start after it is known.
+                final BehaviorSubject<Integer> winner = BehaviorSubject.create();
+
+                return Observable.range(0, days)
+                        .flatMap(new Func1<Integer, Observable<DayResult>>() {
+                            @Override
+                            public Observable<DayResult> call(final Integer daysBack) {
+                                return source.getGanks(daysBefore(from, daysBack))
+                                        .defaultIfEmpty(Collections.<Gank>emptyList())
+                                        .map(new Func1<List<Gank>, DayResult>() {
+                                            @Override
+                                            public DayResult call(List<Gank> ganks) {
+                                                return new DayResult(daysBack, ganks, null);
+                                            }
+                                        })
+                                        .onErrorReturn(new Func1<Throwable, DayResult>() {
+                                            @Override
+                                            public DayResult call(Throwable throwable) {
+                                                // Held until the newer days are known.
+                                                return new DayResult(daysBack, null, throwable);
+                                            }
+                                        })
+                                        .takeUntil(winner.filter(new Func1<Integer, Boolean>() {
+                                            @Override
+                                            public Boolean call(Integer won) {
+                                                return !won.equals(daysBack);
+                                            }
+                                        }));
+                            }
+                        }, maxConcurrent)
+                        .concatMap(new Func1<DayResult, Observable<Pair<Date, List<Gank>>>>() {
+                            @Override
+                            public Observable<Pair<Date, List<Gank>>> call(DayResult result) {
+                                if (winner.hasValue()) {
+                                    // Only the winning day is still subscribed.
+                                    if (result.error != null) {
+                                        return Observable.error(result.error);
+                                    }
+                                    return Observable.just(Pair.create(daysBefore(from, result.daysBack),
+                                            result.ganks));
+                                }
+                                results[result.daysBack] = result;
+                                for (int i = 0; i < days; i++) {
+                                    if (results[i] == null) {
+                                        // A newer day is still loading, it may yet win.
+                                        return Observable.empty();
+                                    }
+                                    if (results[i].error != null) {
+                                        return Observable.error(results[i].error);
+                                    }
+                                    if (!results[i].ganks.isEmpty()) {
+                                        winner.onNext(i);
+                                        return Observable.just(Pair.create(daysBefore(from, i),
+                                                results[i].ganks));
+                                    }
+                                }
+                                return Observable.empty();
+                            }
+                        })
+                        .defaultIfEmpty(Pair.create(from, Collections.<Gank>emptyList()));
+            }
+        });
+    }
+
+    private static Date daysBefore(Date date, int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.add(Calendar.DATE, -days);
+        return calendar.getTime();
+    }
+
+    private static class DayResult {
+        final int daysBack;
+        final List<Gank> ganks;
+        final Throwable error;
+
+        DayResult(int daysBack, List<Gank> ganks, Throwable error) {
+            this.daysBack = daysBack;
+            this.ganks = ganks;
+            this.error = error;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.wangxinarhat.mvp.global;
 
 import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 
+import com.bumptech.glide.Glide;
 import com.orhanobut.logger.LogLevel;
 import com.orhanobut.logger.Logger;
 import com.wangxinarhat.mvp.BuildConfig;
+import com.wangxinarhat.mvp.data.source.GanksRepository;
+import com.wangxinarhat.mvp.prefetch.PrefetchScheduler;
+import com.wangxinarhat.mvp.utils.IsoDates;
 
 /**
  * Base Application
@@ -32,5 +40,29 @@ public class BaseApplication extends Application {
         } else {
             Logger.init("GankMVP").setLogLevel(LogLevel.NONE);
         }
+
+        // IsoDates caches the time zone.
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                IsoDates.resetTimeZone();
+            }
+        }, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+
+        PrefetchScheduler.schedule(this);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        Glide.get(this).trimMemory(level);
+        GanksRepository.trimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        Glide.get(this).clearMemory();
+        GanksRepository.trimMemory(TRIM_MEMORY_COMPLETE);
     }
 }
@@ -0,0 +1,73 @@
+package com.wangxinarhat.mvp.global;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.GlideModule;
+import com.wangxinarhat.mvp.api.GankFactory;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Glide configuration, declared in the manifest. Glide is the only image loader of the app, see
+ * {@link com.wangxinarhat.mvp.utils.GlideUtils}.
+ * <p>
+ * Its memory cache and bitmap pool are sized as a share of the heap the app gets, rather than from
+ * the screen size, so that they leave room for the rest of the app on small heaps. Images are
+ * fetched with {@link GankFactory#getImageHttpClient()}, which shares the connections and threads of
+ * the API client but not its HTTP cache or interceptors: Glide keeps its own disk cache of images,
+ * which would push the API responses out, and the API's cache rules are not meant for images.
+ */
+public class GankGlideModule implements GlideModule {
+
+    private static final float MEMORY_CACHE_SHARE = 1f / 8;
+    private static final float BITMAP_POOL_SHARE = 1f / 16;
+
+    private static final String DISK_CACHE_DIR = "image";
+    private static final int MAX_DISK_CACHE_BYTES = 64 * 1024 * 1024;
+    private static final int MIN_DISK_CACHE_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * At most this share of the free space is taken by the disk cache.
+     */
+    private static final int FREE_SPACE_DIVISOR = 10;
+
+    @Override
+    public void applyOptions(Context context, GlideBuilder builder) {
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int heapBytes = am.getMemoryClass() * 1024 * 1024;
+        if (isLowRamDevice(am)) {
+            heapBytes /= 2;
+        }
+        builder.setMemoryCache(new LruResourceCache((int) (heapBytes * MEMORY_CACHE_SHARE)));
+        builder.setBitmapPool(new LruBitmapPool((int) (heapBytes * BITMAP_POOL_SHARE)));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR,
+                diskCacheBytes(context.getCacheDir())));
+        builder.setDecodeFormat(DecodeFormat.PREFER_RGB_565);
+    }
+
+    @Override
+    public void registerComponents(Context context, Glide glide) {
+        glide.register(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(GankFactory.getImageHttpClient()));
+    }
+
+    private static boolean isLowRamDevice(ActivityManager am) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && am.isLowRamDevice();
+    }
+
+    private static int diskCacheBytes(File dir) {
+        long bytes = dir.getUsableSpace() / FREE_SPACE_DIVISOR;
+        return (int) Math.max(MIN_DISK_CACHE_BYTES, Math.min(MAX_DISK_CACHE_BYTES, bytes));
+    }
+}
@@ -0,0 +1,62 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.Build;
+
+import com.orhanobut.logger.Logger;
+
+import java.util.concurrent.Callable;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.schedulers.Schedulers;
+
+/**
+ * Runs the {@link Prefetcher} for {@link PrefetchScheduler} on API 21 and up, where JobScheduler
+ * waits for the unmetered network and the charger itself.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class PrefetchJobService extends JobService {
+
+    private static final String TAG = PrefetchJobService.class.getCanonicalName();
+
+    private Subscription mSubscription;
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        mSubscription = Observable
+                .fromCallable(new Callable<Long>() {
+                    @Override
+                    public Long call() throws Exception {
+                        return new Prefetcher(PrefetchJobService.this).run();
+                    }
+                })
+                .subscribeOn(Schedulers.io())
+                .subscribe(new Action1<Long>() {
+                    @Override
+                    public void call(Long bytes) {
+                        Logger.d(TAG, "prefetched " + bytes + " bytes");
+                        jobFinished(params, false);
+                    }
+                }, new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        Logger.e(TAG, throwable.getMessage());
+                        jobFinished(params, true);
+                    }
+                });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (mSubscription != null) {
+            mSubscription.unsubscribe();
+        }
+        // The constraints went away, try again once they are back.
+        return true;
+    }
+}
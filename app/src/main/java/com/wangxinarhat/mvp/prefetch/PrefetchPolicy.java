@@ -0,0 +1,100 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import com.wangxinarhat.mvp.utils.DateUtil;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides when to prefetch and what, with no Android dependency so it can be unit tested.
+ * <p>
+ * Prefetching only runs on an unmetered network while charging. It covers the last
+ * {@code days} days, today included: today is always fetched again since it may still change,
+ * earlier days only if they are not stored yet. It stops once the next day could go over the
+ * byte budget; answers served by the HTTP cache cost nothing.
+ */
+public class PrefetchPolicy {
+
+    /**
+     * Content length of a response that did not say.
+     */
+    public static final long UNKNOWN_LENGTH = -1;
+
+    private final int mDays;
+
+    private final long mByteBudget;
+
+    private final long mAssumedDayBytes;
+
+    /**
+     * @param days            how many days to keep prefetched, today included
+     * @param byteBudget      network bytes one run may use
+     * @param assumedDayBytes what a day is taken to cost before it is fetched, or when the
+     *                        response has no content length
+     */
+    public PrefetchPolicy(int days, long byteBudget, long assumedDayBytes) {
+        checkArgument(days > 0, "days must be positive");
+        checkArgument(assumedDayBytes > 0, "assumedDayBytes must be positive");
+        mDays = days;
+        mByteBudget = byteBudget;
+        mAssumedDayBytes = assumedDayBytes;
+    }
+
+    public boolean canRun(boolean unmetered, boolean charging) {
+        return unmetered && charging;
+    }
+
+    /**
+     * @return the days this policy covers, newest first
+     */
+    public List<Date> candidateDays(Date today) {
+        List<Date> days = new ArrayList<>(mDays);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(today);
+        for (int i = 0; i < mDays; i++) {
+            days.add(calendar.getTime());
+            calendar.add(Calendar.DATE, -1);
+        }
+        return days;
+    }
+
+    /**
+     * @param storedDayKeys yyyyMMdd keys of the days that are already stored locally
+     * @return the days to fetch, newest first
+     */
+    public List<Date> daysToFetch(Date today, Set<Integer> storedDayKeys) {
+        int todayKey = DateUtil.toDayKey(today);
+        List<Date> days = new ArrayList<>(mDays);
+        for (Date day : candidateDays(today)) {
+            int dayKey = DateUtil.toDayKey(day);
+            if (dayKey == todayKey || !storedDayKeys.contains(dayKey)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * @param spentBytes network bytes used by this run so far
+     */
+    public boolean canFetchMore(long spentBytes) {
+        return spentBytes + mAssumedDayBytes <= mByteBudget;
+    }
+
+    /**
+     * @param contentLength length of the response body, or {@link #UNKNOWN_LENGTH}
+     * @param fromNetwork   false if the HTTP cache answered
+     * @return network bytes to count against the budget
+     */
+    public long cost(long contentLength, boolean fromNetwork) {
+        if (!fromNetwork) {
+            return 0;
+        }
+        return contentLength < 0 ? mAssumedDayBytes : contentLength;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import android.annotation.TargetApi;
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+
+/**
+ * Schedules the background prefetch of recent daily issues: with JobScheduler on API 21 and up,
+ * with an inexact repeating alarm before that.
+ */
+public class PrefetchScheduler {
+
+    private static final int JOB_ID = 1;
+
+    private static final long INTERVAL_MILLIS = 6 * AlarmManager.INTERVAL_HOUR;
+
+    private PrefetchScheduler() {
+    }
+
+    /**
+     * Safe to call on every start, an existing schedule is kept as is.
+     */
+    public static void schedule(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            scheduleJob(appContext);
+        } else {
+            scheduleAlarm(appContext);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void scheduleJob(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                // Scheduling again would restart its period.
+                return;
+            }
+        }
+        scheduler.schedule(new JobInfo.Builder(JOB_ID, new ComponentName(context, PrefetchJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setPeriodic(INTERVAL_MILLIS)
+                .build());
+    }
+
+    private static void scheduleAlarm(Context context) {
+        Intent intent = new Intent(context, PrefetchService.class);
+        if (PendingIntent.getService(context, JOB_ID, intent, PendingIntent.FLAG_NO_CREATE) != null) {
+            return;
+        }
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        alarmManager.setInexactRepeating(AlarmManager.ELAPSED_REALTIME,
+                SystemClock.elapsedRealtime() + INTERVAL_MILLIS, INTERVAL_MILLIS,
+                PendingIntent.getService(context, JOB_ID, intent, 0));
+    }
+}
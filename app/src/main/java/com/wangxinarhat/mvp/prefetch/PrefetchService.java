@@ -0,0 +1,29 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import android.app.IntentService;
+import android.content.Intent;
+
+import com.orhanobut.logger.Logger;
+
+/**
+ * Runs the {@link Prefetcher} for {@link PrefetchScheduler} before API 21, from an alarm; the
+ * {@link PrefetchPolicy} then checks the network and the charger itself.
+ */
+public class PrefetchService extends IntentService {
+
+    private static final String TAG = PrefetchService.class.getCanonicalName();
+
+    public PrefetchService() {
+        super(TAG);
+    }
+
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        try {
+            long bytes = new Prefetcher(this).run();
+            Logger.d(TAG, "prefetched " + bytes + " bytes");
+        } catch (RuntimeException e) {
+            Logger.e(TAG, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.support.annotation.NonNull;
+import android.support.v4.net.ConnectivityManagerCompat;
+
+import com.orhanobut.logger.Logger;
+import com.wangxinarhat.mvp.api.GankFactory;
+import com.wangxinarhat.mvp.api.GankService;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.GankData;
+import com.wangxinarhat.mvp.data.source.GanksDataSource;
+import com.wangxinarhat.mvp.data.source.local.GanksLocalDataSource;
+import com.wangxinarhat.mvp.utils.DateUtil;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Response;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Fetches the recent daily issues into SQLite ahead of time, following a {@link PrefetchPolicy},
+ * so that opening the app reads them locally. Going through the app's {@link GankService} also
+ * leaves them in the HTTP cache.
+ */
+public class Prefetcher {
+
+    private static final String TAG = Prefetcher.class.getCanonicalName();
+
+    private static final int PREFETCH_DAYS = 7;
+
+    private static final long BYTE_BUDGET = 512 * 1024;
+
+    private static final long ASSUMED_DAY_BYTES = 16 * 1024;
+
+    private final Context mContext;
+
+    private final PrefetchPolicy mPolicy;
+
+    private final GankService mGankService;
+
+    private final GanksDataSource mLocalDataSource;
+
+    public Prefetcher(@NonNull Context context) {
+        this(context, new PrefetchPolicy(PREFETCH_DAYS, BYTE_BUDGET, ASSUMED_DAY_BYTES),
+                GankFactory.getGankService(), GanksLocalDataSource.getInstance(context));
+    }
+
+    public Prefetcher(@NonNull Context context, @NonNull PrefetchPolicy policy,
+                      @NonNull GankService gankService, @NonNull GanksDataSource localDataSource) {
+        mContext = checkNotNull(context).getApplicationContext();
+        mPolicy = checkNotNull(policy);
+        mGankService = checkNotNull(gankService);
+        mLocalDataSource = checkNotNull(localDataSource);
+    }
+
+    /**
+     * Blocks until done, call it off the main thread.
+     *
+     * @return network bytes used, as counted against the budget
+     */
+    public long run() {
+        if (!mPolicy.canRun(isUnmetered(), isCharging())) {
+            return 0;
+        }
+        Date today = new Date(System.currentTimeMillis());
+        Map<Integer, List<Gank>> stored = storedDays(today);
+        long spent = 0;
+        for (Date day : mPolicy.daysToFetch(today, stored.keySet())) {
+            if (!mPolicy.canFetchMore(spent)) {
+                break;
+            }
+            try {
+                spent += fetch(day, stored.get(DateUtil.toDayKey(day)));
+            } catch (RuntimeException e) {
+                // Leave the rest for the next run.
+                Logger.e(TAG, e.getMessage());
+                break;
+            }
+        }
+        return spent;
+    }
+
+    /**
+     * @param stored what is stored of {@code day}, null if nothing
+     */
+    private long fetch(Date day, List<Gank> stored) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(day);
+        Response<GankData> response = mGankService.getGankData(calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH), null, null)
+                .toBlocking()
+                .first();
+        okhttp3.Response network = response.raw().networkResponse();
+        long cost = network == null
+                ? mPolicy.cost(PrefetchPolicy.UNKNOWN_LENGTH, false)
+                : mPolicy.cost(contentLength(network), true);
+        if (response.isSuccessful()) {
+            List<Gank> ganks = response.body().ganks;
+            // Today is fetched on every run; leave it alone if it did not change, rather than
+            // rewriting it and re-running every query on it. Read flags are kept either way.
+            if (!ganks.isEmpty() && !ganks.equals(stored)) {
+                mLocalDataSource.saveGanks(day, ganks);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * @return the ganks stored of each candidate day that has any, by day key
+     */
+    private Map<Integer, List<Gank>> storedDays(Date today) {
+        Map<Integer, List<Gank>> stored = new HashMap<>();
+        for (Date day : mPolicy.candidateDays(today)) {
+            List<Gank> ganks = mLocalDataSource.getGanks(day).toBlocking().first();
+            if (!ganks.isEmpty()) {
+                stored.put(DateUtil.toDayKey(day), ganks);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * From the network response: the one the app sees is unzipped and has no length any more.
+     */
+    private static long contentLength(okhttp3.Response network) {
+        String length = network.header("Content-Length");
+        if (length == null) {
+            return PrefetchPolicy.UNKNOWN_LENGTH;
+        }
+        try {
+            return Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            return PrefetchPolicy.UNKNOWN_LENGTH;
+        }
+    }
+
+    private boolean isUnmetered() {
+        ConnectivityManager manager =
+                (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo info = manager.getActiveNetworkInfo();
+        return info != null && info.isConnected() && !ConnectivityManagerCompat.isActiveNetworkMetered(manager);
+    }
+
+    private boolean isCharging() {
+        Intent battery = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return battery != null && battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+}
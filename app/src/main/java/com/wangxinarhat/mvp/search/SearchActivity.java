@@ -0,0 +1,69 @@
+package com.wangxinarhat.mvp.search;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.v7.app.ActionBar;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.Toolbar;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.source.GanksRepository;
+import com.wangxinarhat.mvp.data.source.local.GanksLocalDataSource;
+import com.wangxinarhat.mvp.data.source.remote.GanksRemoteDataSource;
+import com.wangxinarhat.mvp.global.BaseApplication;
+import com.wangxinarhat.mvp.utils.ActivityUtils;
+
+import java.util.Date;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+/**
+ * Searches the ganks on the device and on gank.io.
+ */
+public class SearchActivity extends AppCompatActivity {
+
+    @BindView(R.id.toolbar)
+    Toolbar mToolbar;
+
+    public static Intent getIntent() {
+        return new Intent(BaseApplication.getApplication(), SearchActivity.class);
+    }
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.act_search);
+        ButterKnife.bind(this);
+
+        initView();
+    }
+
+    private void initView() {
+        setSupportActionBar(mToolbar);
+        ActionBar ab = getSupportActionBar();
+        ab.setHomeButtonEnabled(true);
+        ab.setDisplayHomeAsUpEnabled(true);
+        ab.setTitle(R.string.action_search);
+
+        SearchFragment searchFragment =
+                (SearchFragment) getSupportFragmentManager().findFragmentById(R.id.contentFrame);
+        if (searchFragment == null) {
+            searchFragment = SearchFragment.newInstance();
+            ActivityUtils.addFragmentToActivity(
+                    getSupportFragmentManager(), searchFragment, R.id.contentFrame);
+        }
+
+        GanksRepository ganksRepository = GanksRepository.getInstance(
+                GanksRemoteDataSource.getInstance(
+                        new Date(System.currentTimeMillis())), GanksLocalDataSource.getInstance(this));
+        new SearchPresenter(ganksRepository, searchFragment);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.wangxinarhat.mvp.search;
+
+import android.support.annotation.NonNull;
+
+import com.wangxinarhat.mvp.base.BasePresenter;
+import com.wangxinarhat.mvp.base.BaseView;
+import com.wangxinarhat.mvp.data.Gank;
+
+import java.util.List;
+
+/**
+ * This specifies the contract between the search view and its presenter.
+ */
+public interface SearchContract {
+
+    interface View extends BaseView<Presenter> {
+
+        void setLoadingIndicator(boolean active);
+
+        /**
+         * replace the results on screen, an empty list clears them
+         */
+        void showResults(List<Gank> ganks);
+
+        /**
+         * add the next page of results after those on screen
+         */
+        void showMoreResults(List<Gank> ganks);
+
+        void showNoResults(String query);
+
+        void showSearchError();
+
+        void showGankDetailsUi(String url, String title);
+
+        boolean isActive();
+    }
+
+    interface Presenter extends BasePresenter {
+
+        /**
+         * the query as typed so far, called on every keystroke
+         */
+        void search(@NonNull String query);
+
+        /**
+         * the user is close to the end of the results
+         */
+        void loadMoreResults();
+
+        void openGankDetails(@NonNull Gank requestedGank);
+    }
+}
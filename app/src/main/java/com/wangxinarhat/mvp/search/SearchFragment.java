@@ -0,0 +1,166 @@
+package com.wangxinarhat.mvp.search;
+
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.support.v4.app.Fragment;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import com.wangxinarhat.mvp.R;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.gankdetail.GankDetailActivity;
+import com.wangxinarhat.mvp.ganks.GankRowsAdapter;
+import com.wangxinarhat.mvp.utils.CommonUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import butterknife.BindView;
+import butterknife.ButterKnife;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Search box and results.
+ */
+public class SearchFragment extends Fragment implements SearchContract.View, GankRowsAdapter.OnGankClickListener {
+
+    /**
+     * How many rows before the end the next page is asked for.
+     */
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
+    @BindView(R.id.search_query)
+    EditText mQuery;
+    @BindView(R.id.search_progress)
+    ProgressBar mProgress;
+    @BindView(R.id.recycler)
+    RecyclerView mRecycler;
+    @BindView(R.id.search_empty)
+    TextView mEmpty;
+
+    private SearchContract.Presenter mPresenter;
+
+    private GankRowsAdapter mAdapter;
+
+    public static SearchFragment newInstance() {
+        return new SearchFragment();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        mPresenter.subscribe();
+        // Runs the query again if it was typed while paused.
+        mPresenter.search(mQuery.getText().toString());
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        mPresenter.unsubscribe();
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.frag_search, container, false);
+        ButterKnife.bind(this, root);
+        return root;
+    }
+
+    @Override
+    public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        mAdapter = new GankRowsAdapter(this);
+        final LinearLayoutManager layoutManager = new LinearLayoutManager(getActivity());
+        mRecycler.setLayoutManager(layoutManager);
+        mRecycler.setHasFixedSize(true);
+        mRecycler.setAdapter(mAdapter);
+        mRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                        >= mAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    mPresenter.loadMoreResults();
+                }
+            }
+        });
+
+        mQuery.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                mPresenter.search(s.toString());
+            }
+        });
+    }
+
+    @Override
+    public void setPresenter(SearchContract.Presenter presenter) {
+        mPresenter = checkNotNull(presenter);
+    }
+
+    @Override
+    public void setLoadingIndicator(boolean active) {
+        if (getView() == null) {
+            return;
+        }
+        mProgress.setVisibility(active ? View.VISIBLE : View.INVISIBLE);
+    }
+
+    @Override
+    public void showResults(List<Gank> ganks) {
+        mEmpty.setVisibility(View.GONE);
+        mAdapter.replaceData(ganks);
+        mRecycler.scrollToPosition(0);
+    }
+
+    @Override
+    public void showMoreResults(List<Gank> ganks) {
+        mAdapter.appendData(ganks);
+    }
+
+    @Override
+    public void showNoResults(String query) {
+        mAdapter.replaceData(Collections.<Gank>emptyList());
+        mEmpty.setText(getString(R.string.search_no_results, query));
+        mEmpty.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    public void showSearchError() {
+        CommonUtils.showShortSnackbar(mRecycler, R.string.search_error);
+    }
+
+    @Override
+    public void showGankDetailsUi(String url, String title) {
+        startActivity(GankDetailActivity.getIntent(url, title));
+    }
+
+    @Override
+    public boolean isActive() {
+        return isAdded();
+    }
+
+    @Override
+    public void onGankClick(Gank gank) {
+        mPresenter.openGankDetails(gank);
+    }
+}
@@ -0,0 +1,306 @@
+package com.wangxinarhat.mvp.search;
+
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import com.orhanobut.logger.Logger;
+import com.wangxinarhat.mvp.data.Gank;
+import com.wangxinarhat.mvp.data.source.GanksRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Observer;
+import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subscriptions.CompositeSubscription;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Listens to the query typed in {@link SearchFragment} and shows what matches it, from the device
+ * first and then from the backend.
+ * <p>
+ * Keystrokes are debounced, so a request only goes out once the user pauses. Each new query
+ * unsubscribes the requests of the previous one ({@code switchMap}), and results that were
+ * already on their way to the main thread are dropped if their query is no longer the current
+ * one, so a slow answer never replaces a newer one. Pages the backend answered are kept in an
+ * LRU, which makes deleting a character or two and typing it again free; pages it could not
+ * answer are asked for again.
+ */
+public class SearchPresenter implements SearchContract.Presenter {
+
+    private static final String TAG = SearchPresenter.class.getCanonicalName();
+
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final GanksRepository mGanksRepository;
+
+    private final SearchContract.View mSearchView;
+
+    private final PublishSubject<String> mQueries = PublishSubject.create();
+
+    /**
+     * Final results of a query page, merged with the backend's, by {@link #pageKey}.
+     */
+    private final LruCache<String, List<Gank>> mPages = new LruCache<>(MAX_CACHED_PAGES);
+
+    private final CompositeSubscription mSubscriptions = new CompositeSubscription();
+
+    private Subscription mMoreSubscription;
+
+    // What is on screen. Only touched on the main thread.
+    private String mQuery = "";
+    private int mPage;
+    private boolean mLoadingMore;
+    private boolean mReachedEnd;
+    private final Set<String> mShownIds = new HashSet<>();
+
+    /**
+     * The first page of {@link #mQuery} failed or was cancelled before the backend answered, so
+     * the same query typed again runs again. Only touched on the main thread.
+     */
+    private boolean mQueryNeedsRetry;
+
+    public SearchPresenter(@NonNull GanksRepository ganksRepository, @NonNull SearchContract.View searchView) {
+        mGanksRepository = checkNotNull(ganksRepository, "ganksRepository cannot be null");
+        mSearchView = checkNotNull(searchView, "searchView cannot be null!");
+        mSearchView.setPresenter(this);
+    }
+
+    @Override
+    public void subscribe() {
+        Subscription subscription = mQueries
+                .debounce(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+                .map(new Func1<String, String>() {
+                    @Override
+                    public String call(String query) {
+                        return query.trim();
+                    }
+                })
+                .observeOn(AndroidSchedulers.mainThread())
+                .filter(new Func1<String, Boolean>() {
+                    @Override
+                    public Boolean call(String query) {
+                        return !query.equals(mQuery) || mQueryNeedsRetry;
+                    }
+                })
+                .doOnNext(new Action1<String>() {
+                    @Override
+                    public void call(String query) {
+                        startQuery(query);
+                    }
+                })
+                .switchMap(new Func1<String, Observable<Page>>() {
+                    @Override
+                    public Observable<Page> call(String query) {
+                        if (query.isEmpty()) {
+                            return Observable.just(new Page(query, 1, Collections.<Gank>emptyList(), null));
+                        }
+                        return loadPage(query, 1);
+                    }
+                })
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Action1<Page>() {
+                    @Override
+                    public void call(Page page) {
+                        showFirstPage(page);
+                    }
+                });
+        mSubscriptions.add(subscription);
+    }
+
+    @Override
+    public void unsubscribe() {
+        mSubscriptions.clear();
+        // Unless the backend answered its first page, the query runs again on resume.
+        mQueryNeedsRetry = mPages.get(pageKey(mQuery, 1)) == null;
+        cancelMore();
+        mSearchView.setLoadingIndicator(false);
+    }
+
+    @Override
+    public void search(@NonNull String query) {
+        mQueries.onNext(checkNotNull(query));
+    }
+
+    @Override
+    public void loadMoreResults() {
+        if (mLoadingMore || mReachedEnd || mQuery.isEmpty() || mPage == 0) {
+            return;
+        }
+        mLoadingMore = true;
+        final String query = mQuery;
+        mMoreSubscription = loadPage(query, mPage + 1)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Observer<Page>() {
+                    @Override
+                    public void onCompleted() {
+                        mLoadingMore = false;
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        Logger.e(TAG, e.getMessage());
+                        mLoadingMore = false;
+                    }
+
+                    @Override
+                    public void onNext(Page page) {
+                        showMorePage(page);
+                    }
+                });
+    }
+
+    @Override
+    public void openGankDetails(@NonNull Gank requestedGank) {
+        checkNotNull(requestedGank, "requestedGank cannot be null!");
+        mSearchView.showGankDetailsUi(requestedGank.getUrl(), requestedGank.getTitle());
+    }
+
+    private void startQuery(String query) {
+        cancelMore();
+        mQuery = query;
+        mQueryNeedsRetry = false;
+        mPage = 0;
+        mReachedEnd = false;
+        mSearchView.setLoadingIndicator(!query.isEmpty());
+    }
+
+    private void cancelMore() {
+        if (mMoreSubscription != null) {
+            mMoreSubscription.unsubscribe();
+            mMoreSubscription = null;
+        }
+        mLoadingMore = false;
+    }
+
+    /**
+     * The page from the LRU, or from the repository: the device's results first, then the merged
+     * ones. Only a merged page goes in the LRU. Errors come out as a page, so they do not end the
+     * query stream.
+     */
+    private Observable<Page> loadPage(final String query, final int number) {
+        final String key = pageKey(query, number);
+        List<Gank> cached = mPages.get(key);
+        if (cached != null) {
+            return Observable.just(new Page(query, number, cached, null));
+        }
+        final List<List<Gank>> latest = new ArrayList<>(1);
+        return mGanksRepository.searchGanks(query, PAGE_SIZE, number)
+                .subscribeOn(Schedulers.io())
+                .doOnNext(new Action1<List<Gank>>() {
+                    @Override
+                    public void call(List<Gank> ganks) {
+                        latest.clear();
+                        latest.add(ganks);
+                    }
+                })
+                .doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        mPages.put(key, latest.isEmpty() ? Collections.<Gank>emptyList() : latest.get(0));
+                    }
+                })
+                .map(new Func1<List<Gank>, Page>() {
+                    @Override
+                    public Page call(List<Gank> ganks) {
+                        return new Page(query, number, ganks, null);
+                    }
+                })
+                .defaultIfEmpty(new Page(query, number, Collections.<Gank>emptyList(), null))
+                .onErrorReturn(new Func1<Throwable, Page>() {
+                    @Override
+                    public Page call(Throwable throwable) {
+                        // With the device's results, if they were out already.
+                        return new Page(query, number, latest.isEmpty() ? null : latest.get(0), throwable);
+                    }
+                });
+    }
+
+    private void showFirstPage(Page page) {
+        if (!page.query.equals(mQuery) || !mSearchView.isActive()) {
+            // Superseded while on its way here.
+            return;
+        }
+        mSearchView.setLoadingIndicator(false);
+        if (page.error != null) {
+            Logger.e(TAG, page.error.getMessage());
+            mQueryNeedsRetry = true;
+            if (page.ganks == null) {
+                mSearchView.showSearchError();
+            }
+            // Otherwise the device's results are on screen already, and all there is offline.
+            return;
+        }
+        mPage = 1;
+        mShownIds.clear();
+        for (Gank gank : page.ganks) {
+            mShownIds.add(gank.getId());
+        }
+        if (page.ganks.isEmpty() && !page.query.isEmpty()) {
+            mSearchView.showNoResults(page.query);
+        } else {
+            mSearchView.showResults(page.ganks);
+        }
+    }
+
+    private void showMorePage(Page page) {
+        if (!page.query.equals(mQuery) || !mSearchView.isActive()) {
+            return;
+        }
+        if (page.error != null) {
+            Logger.e(TAG, page.error.getMessage());
+            return;
+        }
+        mPage = Math.max(mPage, page.number);
+        // The device's and the backend's pages do not line up, skip what is already shown.
+        List<Gank> fresh = new ArrayList<>();
+        for (Gank gank : page.ganks) {
+            if (mShownIds.add(gank.getId())) {
+                fresh.add(gank);
+            }
+        }
+        if (page.ganks.isEmpty()) {
+            mReachedEnd = true;
+        }
+        if (!fresh.isEmpty()) {
+            mSearchView.showMoreResults(fresh);
+        }
+    }
+
+    private static String pageKey(String query, int number) {
+        return number + "/" + query;
+    }
+
+    private static final class Page {
+        final String query;
+        final int number;
+        /**
+         * With an error, what was already shown of the page, null if nothing.
+         */
+        final List<Gank> ganks;
+        final Throwable error;
+
+        Page(String query, int number, List<Gank> ganks, Throwable error) {
+            this.query = query;
+            this.number = number;
+            this.ganks = ganks;
+            this.error = error;
+        }
+    }
+}
@@ -19,8 +19,6 @@
 
 package com.wangxinarhat.mvp.utils;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -30,9 +28,29 @@ import java.util.Date;
  */
 public class DateUtil {
 
+    /**
+     * Recently formatted days, direct-mapped by day. A list shows a handful of days, so this almost
+     * never misses while scrolling; entries are immutable, so no lock is needed.
+     */
+    private static final int DAY_CACHE_SIZE = 64;
+    private static final DayString[] sDayStrings = new DayString[DAY_CACHE_SIZE];
+
+    /**
+     * @return the day of {@code date} as yyyy/MM/dd
+     */
     public static String toDate(Date date) {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd");
-        return dateFormat.format(date);
+        long millis = date.getTime();
+        int dayKey = IsoDates.toDayKey(millis);
+        int slot = (dayKey % 100 + dayKey / 100 % 100 * 31) & (DAY_CACHE_SIZE - 1);
+        DayString cached = sDayStrings[slot];
+        if (cached != null && cached.dayKey == dayKey) {
+            return cached.text;
+        }
+        char[] chars = new char[IsoDates.FORMATTED_DAY_LENGTH];
+        IsoDates.formatDay(millis, '/', chars, 0);
+        String text = new String(chars);
+        sDayStrings[slot] = new DayString(dayKey, text);
+        return text;
     }
 
     public static String toDate(Date date, int add) {
@@ -42,6 +60,15 @@ public class DateUtil {
         return toDate(calendar.getTime());
     }
 
+    /**
+     * day key used to group ganks by their daily issue, e.g. 20160810
+     *
+     * @param date any time of the day
+     * @return yyyyMMdd as an int
+     */
+    public static int toDayKey(Date date) {
+        return IsoDates.toDayKey(date.getTime());
+    }
     public static Date getLastdayDate(Date date) {
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(date);
@@ -55,4 +82,14 @@ public class DateUtil {
         calendar.add(Calendar.DATE, 1);
         return calendar.getTime();
     }
+
+    private static final class DayString {
+        final int dayKey;
+        final String text;
+
+        DayString(int dayKey, String text) {
+            this.dayKey = dayKey;
+            this.text = text;
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package com.wangxinarhat.mvp.utils;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.support.annotation.IdRes;
 import android.widget.ImageView;
 
+import com.bumptech.glide.BitmapRequestBuilder;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.target.BitmapImageViewTarget;
 
 /**
  * Glide utils
@@ -42,6 +46,83 @@ public class GlideUtils {
 
     }
 
+    /**
+     * Loads a welfare picture decoded at the size of {@code imageView} in RGB_565, which is half
+     * the memory of ARGB_8888 and fine for an opaque photo. Matches {@link #preloadWelfare}, so a
+     * preloaded picture is served from the memory cache.
+     */
+    public static void loadWelfare(String imageUrl, ImageView imageView) {
+        try {
+            welfareRequest(imageView.getContext(), imageUrl)
+                    .into(imageView);
+        } catch (Exception e) {
+
+        }
+    }
+
+    /**
+     * Decodes a welfare picture ahead of time into the memory cache, for an image view of
+     * {@code width} x {@code height}.
+     */
+    public static void preloadWelfare(Context context, String imageUrl, int width, int height) {
+        try {
+            welfareRequest(context, imageUrl)
+                    .preload(width, height);
+        } catch (Exception e) {
+
+        }
+    }
+
+    private static BitmapRequestBuilder<String, Bitmap> welfareRequest(Context context, String imageUrl) {
+        // centerCrop is what into() would pick from the view's scaleType, but preload() has no
+        // view: set it here so both end up with the same cache key.
+        return Glide.with(context)
+                .load(imageUrl)
+                .asBitmap()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .centerCrop()
+                .dontAnimate();
+    }
+
+    /**
+     * Loads a gallery thumbnail: the picture scaled to fit in {@code width} x {@code maxHeight}
+     * with its aspect ratio kept, in RGB_565. Only a thumbnail's worth of pixels is held, whatever
+     * the size of the original. Matches {@link #preloadThumbnail}.
+     */
+    public static void loadThumbnail(String imageUrl, int width, int maxHeight, BitmapImageViewTarget target) {
+        try {
+            thumbnailRequest(target.getView().getContext(), imageUrl, width, maxHeight)
+                    .into(target);
+        } catch (Exception e) {
+
+        }
+    }
+
+    /**
+     * Decodes a gallery thumbnail ahead of time into the memory cache.
+     */
+    public static void preloadThumbnail(Context context, String imageUrl, int width, int maxHeight) {
+        try {
+            thumbnailRequest(context, imageUrl, width, maxHeight)
+                    .preload(width, maxHeight);
+        } catch (Exception e) {
+
+        }
+    }
+
+    private static BitmapRequestBuilder<String, Bitmap> thumbnailRequest(Context context, String imageUrl,
+                                                                         int width, int maxHeight) {
+        // The size is given rather than taken from the view, whose height is not known until the
+        // picture is in, and so that preload() ends up with the same cache key.
+        return Glide.with(context)
+                .load(imageUrl)
+                .asBitmap()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .fitCenter()
+                .override(width, maxHeight)
+                .dontAnimate();
+    }
+
     public static void loadAvatar(Context context, String imageUrl, ImageView imageView) {
         try {
             Glide.with(context)
@@ -0,0 +1,40 @@
+package com.wangxinarhat.mvp.utils;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Gson adapter for gank.io dates, through {@link IsoDates} rather than a shared, locked
+ * {@link java.text.SimpleDateFormat}.
+ */
+public class IsoDateTypeAdapter extends TypeAdapter<Date> {
+
+    @Override
+    public void write(JsonWriter out, Date value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(IsoDates.format(value.getTime()));
+        }
+    }
+
+    @Override
+    public Date read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String date = in.nextString();
+        try {
+            return new Date(IsoDates.parse(date));
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException(date, e);
+        }
+    }
+}
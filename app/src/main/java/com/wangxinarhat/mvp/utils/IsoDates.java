@@ -0,0 +1,216 @@
+package com.wangxinarhat.mvp.utils;
+
+import java.util.TimeZone;
+
+/**
+ * Parser and formatter for the fixed date format of the gank.io API, e.g.
+ * {@code 2016-08-12T11:37:30.184Z}, and for the days the app shows.
+ * <p>
+ * Works on characters and epoch millis directly instead of going through
+ * {@link java.text.SimpleDateFormat}, and allocates nothing but the Strings it returns. Like the
+ * {@code "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"} pattern the app has always used, times are local and the
+ * trailing 'Z' is ignored: gank.io writes Beijing time with a 'Z', and the app groups issues by
+ * local day.
+ * <p>
+ * The time zone is looked up once, since {@link TimeZone#getDefault()} returns a copy; call
+ * {@link #resetTimeZone()} when it changes.
+ */
+public final class IsoDates {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    /**
+     * Length of {@link #format(long, char[], int)}'s output.
+     */
+    public static final int FORMATTED_LENGTH = 24;
+
+    /**
+     * Length of {@link #formatDay(long, char, char[], int)}'s output.
+     */
+    public static final int FORMATTED_DAY_LENGTH = 10;
+
+    private static volatile TimeZone sZone = TimeZone.getDefault();
+
+    private IsoDates() {
+    }
+
+    /**
+     * @param s {@code yyyy-MM-ddTHH:mm:ss}, then optionally a fraction of a second of any length
+     *          and a 'Z'
+     * @return the time in epoch milliseconds
+     * @throws IllegalArgumentException if {@code s} is not in that format
+     */
+    public static long parse(CharSequence s) {
+        int length = s.length();
+        if (length < 19 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            throw new IllegalArgumentException("Not an ISO-8601 date: " + s);
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+
+        int millis = 0;
+        int i = 19;
+        if (i < length && s.charAt(i) == '.') {
+            int start = ++i;
+            int scale = 100;
+            while (i < length && isDigit(s.charAt(i))) {
+                // Digits past milliseconds are dropped.
+                millis += (s.charAt(i) - '0') * scale;
+                scale /= 10;
+                i++;
+            }
+            if (i == start) {
+                throw new IllegalArgumentException("Not an ISO-8601 date: " + s);
+            }
+        }
+        if (i < length && s.charAt(i) == 'Z') {
+            i++;
+        }
+        if (i != length || year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23
+                || minute > 59 || second > 60) {
+            throw new IllegalArgumentException("Not an ISO-8601 date: " + s);
+        }
+
+        long local = daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND + millis;
+        return localToUtc(local, sZone);
+    }
+
+    /**
+     * @return {@code millis} as {@code yyyy-MM-ddTHH:mm:ss.SSSZ}, the format {@link #parse} reads
+     */
+    public static String format(long millis) {
+        char[] chars = new char[FORMATTED_LENGTH];
+        format(millis, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes {@code millis} as {@code yyyy-MM-ddTHH:mm:ss.SSSZ} at {@code offset}.
+     *
+     * @return the offset right after what was written
+     */
+    public static int format(long millis, char[] out, int offset) {
+        long local = millis + sZone.getOffset(millis);
+        long days = floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) (local - days * MILLIS_PER_DAY);
+        int i = writeDay(civilFromDays(days), '-', out, offset);
+        out[i++] = 'T';
+        i = writeDigits(millisOfDay / (int) MILLIS_PER_HOUR, 2, out, i);
+        out[i++] = ':';
+        i = writeDigits(millisOfDay / (int) MILLIS_PER_MINUTE % 60, 2, out, i);
+        out[i++] = ':';
+        i = writeDigits(millisOfDay / (int) MILLIS_PER_SECOND % 60, 2, out, i);
+        out[i++] = '.';
+        i = writeDigits(millisOfDay % (int) MILLIS_PER_SECOND, 3, out, i);
+        out[i++] = 'Z';
+        return i;
+    }
+
+    /**
+     * Writes the local day of {@code millis} as {@code yyyy/MM/dd}, or with another separator, at
+     * {@code offset}.
+     *
+     * @return the offset right after what was written
+     */
+    public static int formatDay(long millis, char separator, char[] out, int offset) {
+        return writeDay(toDayKey(millis), separator, out, offset);
+    }
+
+    /**
+     * @return the local day of {@code millis} as yyyyMMdd, e.g. 20160812
+     */
+    public static int toDayKey(long millis) {
+        long local = millis + sZone.getOffset(millis);
+        return civilFromDays(floorDiv(local, MILLIS_PER_DAY));
+    }
+
+    /**
+     * Picks up a new default time zone, e.g. on {@link android.content.Intent#ACTION_TIMEZONE_CHANGED}.
+     */
+    public static void resetTimeZone() {
+        sZone = TimeZone.getDefault();
+    }
+
+    /**
+     * Days from 1970-01-01 to the given day of the proleptic Gregorian calendar.
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * The day {@code days} after 1970-01-01, as yyyyMMdd.
+     */
+    static int civilFromDays(long days) {
+        days += 719468;
+        long era = (days >= 0 ? days : days - 146096) / 146097;
+        int dayOfEra = (int) (days - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 10000 + month * 100 + day);
+    }
+
+    /**
+     * Turns a wall clock time in {@code zone}, written as if it were UTC, into the actual instant.
+     */
+    static long localToUtc(long local, TimeZone zone) {
+        // Right except for the repeated hour when DST ends, which resolves to its first instant.
+        long guess = local - zone.getOffset(local);
+        return local - zone.getOffset(guess);
+    }
+
+    private static int writeDay(int dayKey, char separator, char[] out, int offset) {
+        int i = writeDigits(dayKey / 10000, 4, out, offset);
+        out[i++] = separator;
+        i = writeDigits(dayKey / 100 % 100, 2, out, i);
+        out[i++] = separator;
+        return writeDigits(dayKey % 100, 2, out, i);
+    }
+
+    private static int writeDigits(int value, int count, char[] out, int offset) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + count;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                throw new IllegalArgumentException("Not an ISO-8601 date: " + s);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -19,10 +19,13 @@
 
 package com.wangxinarhat.mvp.utils;
 
+import android.support.annotation.NonNull;
 import android.text.SpannableString;
-import android.text.SpannableStringBuilder;
+import android.text.Spanned;
 import android.text.style.TextAppearanceSpan;
+import android.util.LruCache;
 
+import com.google.common.base.Objects;
 import com.wangxinarhat.mvp.R;
 import com.wangxinarhat.mvp.data.Gank;
 import com.wangxinarhat.mvp.global.BaseApplication;
@@ -30,15 +33,69 @@ import com.wangxinarhat.mvp.global.BaseApplication;
 
 public class StringStyleUtils {
 
+    /**
+     * Styled titles of the ganks last shown, by id: a few days' worth.
+     */
+    private static final int MAX_CACHED_TITLES = 256;
+
+    private static final LruCache<String, GankInfo> sGankInfos = new LruCache<>(MAX_CACHED_TITLES);
+
+    /**
+     * Shared by all the titles. It holds nothing but the resolved appearance, so one instance can
+     * style any number of read-only texts.
+     */
+    private static volatile TextAppearanceSpan sViaSpan;
+
     public static SpannableString format( String text, int style) {
         SpannableString spannableString = new SpannableString(text);
         spannableString.setSpan(new TextAppearanceSpan(BaseApplication.getApplication(), style), 0, text.length(), 0);
         return spannableString;
     }
 
-    public static CharSequence getGankInfoSequence(Gank mGank) {
-        SpannableStringBuilder builder = new SpannableStringBuilder(mGank.getTitle()).append(
-                StringStyleUtils.format( " (via. " + mGank.getDescription() + ")", R.style.ViaTextAppearance));
-        return builder.subSequence(0, builder.length());
+    /**
+     * The title of a gank followed by its author, styled. Built once per gank and cached by id, so
+     * binding a row again does not allocate; the first call for a gank can be made off the main
+     * thread to warm the cache. A gank whose title or description changed is built again.
+     */
+    public static CharSequence getGankInfoSequence(@NonNull Gank gank) {
+        String id = gank.getId();
+        GankInfo info = id == null ? null : sGankInfos.get(id);
+        if (info == null || !info.isFor(gank)) {
+            info = new GankInfo(gank.getTitle(), gank.getDescription());
+            if (id != null) {
+                sGankInfos.put(id, info);
+            }
+        }
+        return info.text;
+    }
+
+    private static TextAppearanceSpan viaSpan() {
+        TextAppearanceSpan span = sViaSpan;
+        if (span == null) {
+            // Racing threads may each resolve the style once, which is harmless.
+            span = new TextAppearanceSpan(BaseApplication.getApplication(), R.style.ViaTextAppearance);
+            sViaSpan = span;
+        }
+        return span;
+    }
+
+    private static class GankInfo {
+        final String title;
+        final String description;
+        final CharSequence text;
+
+        GankInfo(String title, String description) {
+            this.title = title;
+            this.description = description;
+            String titleText = title == null ? "" : title;
+            String via = " (via. " + description + ")";
+            SpannableString text = new SpannableString(titleText + via);
+            text.setSpan(viaSpan(), titleText.length(), text.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            this.text = text;
+        }
+
+        boolean isFor(Gank gank) {
+            return Objects.equal(title, gank.getTitle()) && Objects.equal(description, gank.getDescription());
+        }
     }
 }
@@ -0,0 +1,129 @@
+package com.wangxinarhat.mvp.widget;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * A read-only, multi-line text view that draws a {@link Layout}, preferably one built in the
+ * background by a {@link TextLayoutCache}.
+ * <p>
+ * It only knows {@code android:textSize} and {@code android:textColor}, and it always takes the
+ * width it is given: a list row has no use for the rest of {@link android.widget.TextView}, and
+ * skipping it keeps binding and measuring cheap. When no layout has been prepared for its text and
+ * width, it builds one itself.
+ */
+public class LayoutTextView extends View {
+
+    // Sorted, as obtainStyledAttributes requires
+    private static final int[] ATTRS = {android.R.attr.textSize, android.R.attr.textColor};
+    private static final int ATTR_TEXT_SIZE = 0;
+    private static final int ATTR_TEXT_COLOR = 1;
+
+    private final TextPaint mPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+
+    private CharSequence mText;
+    private String mKey;
+    private TextLayoutCache mCache;
+
+    private Layout mLayout;
+
+    public LayoutTextView(Context context) {
+        this(context, null);
+    }
+
+    public LayoutTextView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public LayoutTextView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mPaint.density = getResources().getDisplayMetrics().density;
+        TypedArray a = context.obtainStyledAttributes(attrs, ATTRS, defStyleAttr, 0);
+        try {
+            mPaint.setTextSize(a.getDimension(ATTR_TEXT_SIZE, mPaint.getTextSize()));
+            ColorStateList colors = a.getColorStateList(ATTR_TEXT_COLOR);
+            if (colors != null) {
+                mPaint.setColor(colors.getDefaultColor());
+            }
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * @param key   what identifies {@code text} in {@code cache}
+     * @param cache where a layout for {@code text} may have been prepared, can be null
+     */
+    public void setText(CharSequence text, @Nullable String key, @Nullable TextLayoutCache cache) {
+        mText = text;
+        mKey = key;
+        mCache = cache;
+        setContentDescription(text);
+
+        int width = getContentWidth(getWidth());
+        Layout layout = width > 0 ? findLayout(width) : null;
+        if (layout != null && mLayout != null && layout.getHeight() == mLayout.getHeight()) {
+            // Same size, no need to go through a layout pass.
+            mLayout = layout;
+            invalidate();
+        } else {
+            mLayout = layout;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public CharSequence getText() {
+        return mText;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int contentWidth = getContentWidth(width);
+        if (contentWidth > 0 && (mLayout == null || mLayout.getWidth() != contentWidth)) {
+            mLayout = findLayout(contentWidth);
+        }
+        int height = getPaddingTop() + getPaddingBottom() + (mLayout == null ? 0 : mLayout.getHeight());
+        setMeasuredDimension(width, resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mLayout == null) {
+            return;
+        }
+        canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        mLayout.draw(canvas);
+        canvas.restore();
+    }
+
+    private Layout findLayout(int width) {
+        if (mText == null) {
+            return null;
+        }
+        if (mCache == null || mKey == null) {
+            return TextLayoutCache.newLayout(mText, mPaint, width);
+        }
+        // Lets the cache prepare the next rows for this width.
+        mCache.setSpec(mPaint, width);
+        Layout layout = mCache.get(mKey, mText, width);
+        if (layout == null) {
+            layout = TextLayoutCache.newLayout(mText, mPaint, width);
+            mCache.put(mKey, layout);
+        }
+        return layout;
+    }
+
+    private int getContentWidth(int width) {
+        return width - getPaddingLeft() - getPaddingRight();
+    }
+}
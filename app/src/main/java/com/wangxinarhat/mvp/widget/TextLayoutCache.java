@@ -0,0 +1,113 @@
+package com.wangxinarhat.mvp.widget;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Text layouts built ahead of time for {@link LayoutTextView}s of a list, by key.
+ * <p>
+ * Layouts depend on the width and paint of the views, which are only known once one of them has
+ * been measured: it reports them with {@link #setSpec}. From then on {@link #prepare} builds
+ * layouts for that spec; it may run on any thread, and is meant to run on a background one so that
+ * binding a row only hands a ready layout to its view. Layouts of another spec or another text are
+ * never returned.
+ */
+public class TextLayoutCache {
+
+    private final LruCache<String, Layout> mLayouts;
+
+    private volatile Spec mSpec;
+
+    private Runnable mOnSpecChanged;
+
+    public TextLayoutCache(int maxLayouts) {
+        mLayouts = new LruCache<>(maxLayouts);
+    }
+
+    /**
+     * @param onSpecChanged run on the main thread when the spec changes, e.g. to prepare the
+     *                      layouts of the rows that are already known
+     */
+    public void setOnSpecChanged(@Nullable Runnable onSpecChanged) {
+        mOnSpecChanged = onSpecChanged;
+    }
+
+    /**
+     * Called by a measured {@link LayoutTextView}, on the main thread.
+     */
+    void setSpec(@NonNull TextPaint paint, int width) {
+        Spec spec = mSpec;
+        if (spec != null && spec.width == width && spec.matches(paint)) {
+            return;
+        }
+        mSpec = new Spec(paint, width);
+        mLayouts.evictAll();
+        if (mOnSpecChanged != null) {
+            mOnSpecChanged.run();
+        }
+    }
+
+    /**
+     * Builds the layout of {@code text} under {@code key}, unless it is already there. Does
+     * nothing until a view has reported its spec.
+     */
+    public void prepare(@NonNull String key, @NonNull CharSequence text) {
+        checkNotNull(key);
+        checkNotNull(text);
+        Spec spec = mSpec;
+        if (spec == null || get(key, text, spec.width) != null) {
+            return;
+        }
+        mLayouts.put(key, spec.build(text));
+    }
+
+    /**
+     * @return the layout of {@code text} for {@code width}, or null if it has not been prepared
+     */
+    @Nullable
+    Layout get(@NonNull String key, @NonNull CharSequence text, int width) {
+        Layout layout = mLayouts.get(key);
+        // Texts are compared by identity, the callers reuse their styled texts.
+        return layout != null && layout.getWidth() == width && layout.getText() == text ? layout : null;
+    }
+
+    void put(@NonNull String key, @NonNull Layout layout) {
+        mLayouts.put(key, layout);
+    }
+
+    static Layout newLayout(CharSequence text, TextPaint paint, int width) {
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+
+    private static final class Spec {
+        /**
+         * A copy: paints must not be shared between threads.
+         */
+        final TextPaint paint;
+        final int width;
+
+        Spec(TextPaint paint, int width) {
+            this.paint = new TextPaint(paint);
+            this.width = width;
+        }
+
+        boolean matches(TextPaint other) {
+            return paint.getTextSize() == other.getTextSize()
+                    && paint.getColor() == other.getColor()
+                    && paint.getTypeface() == other.getTypeface();
+        }
+
+        /**
+         * Layouts of one spec are only built from one thread at a time.
+         */
+        synchronized Layout build(CharSequence text) {
+            return newLayout(text, paint, width);
+        }
+    }
+}
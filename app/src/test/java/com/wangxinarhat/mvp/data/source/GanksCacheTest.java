@@ -0,0 +1,230 @@
+package com.wangxinarhat.mvp.data.source;
+
+import com.wangxinarhat.mvp.data.Gank;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link GanksCache}, including concurrent refreshes, completions and reads.
+ */
+public class GanksCacheTest {
+
+    private static final int GANKS_PER_DAY = 12;
+
+    @Test
+    public void evictsLeastRecentlyUsedDay() {
+        GanksCache cache = GanksCache.withMaxDays(2);
+        cache.putDay(1, day(1));
+        cache.putDay(2, day(2));
+        cache.getDay(1);
+
+        cache.putDay(3, day(3));
+
+        assertTrue(cache.containsDay(1));
+        assertFalse(cache.containsDay(2));
+        assertTrue(cache.containsDay(3));
+        assertNull(cache.getGank(id(2, 0)));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void pinnedDaySurvivesEviction() {
+        GanksCache cache = GanksCache.withMaxDays(1);
+        cache.setPinnedDay(1);
+        cache.putDay(1, day(1));
+        cache.putDay(2, day(2));
+        cache.putDay(3, day(3));
+
+        assertTrue(cache.containsDay(1));
+        assertNotNull(cache.getGank(id(1, 0)));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void readSnapshotDoesNotChangeOnUpdate() {
+        GanksCache cache = GanksCache.withMaxDays(2);
+        cache.putDay(1, day(1));
+        List<Gank> before = cache.getDay(1);
+
+        cache.updateGank(completed(cache.getGank(id(1, 0))));
+
+        assertFalse(before.get(0).isCompleted());
+        assertTrue(cache.getDay(1).get(0).isCompleted());
+        assertTrue(cache.getGank(id(1, 0)).isCompleted());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void daysAreReadOnly() {
+        GanksCache cache = GanksCache.withMaxDays(2);
+        cache.putDay(1, day(1));
+
+        cache.getDay(1).clear();
+    }
+
+    @Test
+    public void concurrentCompletions_noneIsLost() throws Exception {
+        final GanksCache cache = GanksCache.withMaxDays(2);
+        cache.putDay(1, day(1));
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < GANKS_PER_DAY; i++) {
+            final String id = id(1, i);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    cache.updateGank(completed(cache.getGank(id)));
+                    return null;
+                }
+            });
+        }
+        runTogether(tasks);
+
+        for (Gank gank : cache.getDay(1)) {
+            assertTrue(gank.getId(), gank.isCompleted());
+        }
+    }
+
+    @Test
+    public void refreshCompleteAndReadStorm_readersSeeConsistentDays() throws Exception {
+        final GanksCache cache = GanksCache.withMaxDays(4);
+        final int days = 8;
+        final int rounds = 2000;
+        cache.setPinnedDay(0);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            final Random random = new Random(t);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < rounds; i++) {
+                        int day = random.nextInt(days);
+                        cache.putDay(day, day(day));
+                        cache.markFetched(day, i);
+                    }
+                    return null;
+                }
+            });
+        }
+        for (int t = 0; t < 2; t++) {
+            final Random random = new Random(10 + t);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < rounds; i++) {
+                        Gank gank = cache.getGank(id(random.nextInt(days), random.nextInt(GANKS_PER_DAY)));
+                        if (gank != null) {
+                            cache.updateGank(completed(gank));
+                        }
+                        if (i % 100 == 0) {
+                            cache.removeCompleted();
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        for (int t = 0; t < 4; t++) {
+            final Random random = new Random(20 + t);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < rounds * 4; i++) {
+                        int day = random.nextInt(days);
+                        List<Gank> ganks = cache.getDay(day);
+                        if (ganks != null) {
+                            assertConsistent(day, ganks);
+                        }
+                        String id = id(day, random.nextInt(GANKS_PER_DAY));
+                        Gank gank = cache.getGank(id);
+                        if (gank != null) {
+                            assertEquals(id, gank.getId());
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        runTogether(tasks);
+
+        assertTrue(cache.size() <= cache.maxSize());
+        for (int day = 0; day < days; day++) {
+            List<Gank> ganks = cache.getDay(day);
+            if (ganks != null) {
+                assertConsistent(day, ganks);
+                for (Gank gank : ganks) {
+                    assertEquals(gank, cache.getGank(gank.getId()));
+                }
+            }
+        }
+    }
+
+    private static void assertConsistent(int day, List<Gank> ganks) {
+        assertTrue(ganks.size() <= GANKS_PER_DAY);
+        Set<String> ids = new HashSet<>();
+        for (Gank gank : ganks) {
+            assertTrue(gank.getId(), gank.getId().startsWith(day + "-"));
+            assertTrue(gank.getId(), ids.add(gank.getId()));
+        }
+    }
+
+    private static void runTogether(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final Callable<Void> task : tasks) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        return task.call();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                // Rethrows what a task threw, assertion errors included.
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Gank> day(int day) {
+        List<Gank> ganks = new ArrayList<>();
+        for (int i = 0; i < GANKS_PER_DAY; i++) {
+            ganks.add(new Gank("Title " + i, "Description " + i, id(day, i)));
+        }
+        return ganks;
+    }
+
+    private static Gank completed(Gank gank) {
+        Gank completed = gank.clone();
+        completed.setCompleted(true);
+        return completed;
+    }
+
+    private static String id(int day, int index) {
+        return day + "-" + index;
+    }
+}
@@ -0,0 +1,221 @@
+package com.wangxinarhat.mvp.data.source;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PagedFeed}: prefetching, in-flight deduplication, ordering and the end of
+ * the feed. Pages are answered by hand, on the test's thread.
+ */
+public class PagedFeedTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private static final int PREFETCH_DISTANCE = 1;
+
+    private static final Func1<String, String> IDENTITY = new Func1<String, String>() {
+        @Override
+        public String call(String item) {
+            return item;
+        }
+    };
+
+    private final Map<Integer, PublishSubject<List<String>>> mRequests = new HashMap<>();
+
+    private final List<Integer> mRequested = new ArrayList<>();
+
+    private final RecordingListener mListener = new RecordingListener();
+
+    private PagedFeed<String> mFeed;
+
+    @Before
+    public void setUp() {
+        mFeed = new PagedFeed<>(new PagedFeed.PageLoader<String>() {
+            @Override
+            public Observable<List<String>> loadPage(int page) {
+                mRequested.add(page);
+                PublishSubject<List<String>> request = PublishSubject.create();
+                mRequests.put(page, request);
+                return request;
+            }
+        }, IDENTITY, PAGE_SIZE, PREFETCH_DISTANCE, Schedulers.immediate());
+        mFeed.setListener(mListener);
+    }
+
+    @Test
+    public void start_loadsFirstPageOnce() {
+        mFeed.start();
+        mFeed.start();
+        mFeed.onItemVisible(0);
+
+        assertEquals(list(1), mRequested);
+        assertTrue(mFeed.isLoading());
+
+        answer(1, "a", "b", "c");
+
+        assertEquals(list("a", "b", "c"), mFeed.getItems());
+        assertEquals(1, mListener.resets);
+        assertFalse(mFeed.isLoading());
+    }
+
+    @Test
+    public void nextPageIsOnlyAskedForNearTheEnd() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+
+        mFeed.onItemVisible(0);
+        assertEquals(list(1), mRequested);
+
+        mFeed.onItemVisible(1);
+        mFeed.onItemVisible(2);
+        assertEquals(list(1, 2), mRequested);
+
+        answer(2, "d", "e", "f");
+
+        assertEquals(list("a", "b", "c", "d", "e", "f"), mFeed.getItems());
+        assertEquals(list(3), mListener.appendedAt);
+    }
+
+    @Test
+    public void pagesArrivingOutOfOrderAreAppendedInOrder() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+        // Far enough to need two pages.
+        mFeed.onItemVisible(2 + PAGE_SIZE);
+        assertEquals(list(1, 2, 3), mRequested);
+
+        answer(3, "g", "h", "i");
+        assertEquals(3, mFeed.getItems().size());
+
+        answer(2, "d", "e", "f");
+        assertEquals(list("a", "b", "c", "d", "e", "f", "g", "h", "i"), mFeed.getItems());
+        assertEquals(list(3), mListener.appendedAt);
+    }
+
+    @Test
+    public void itemsPushedIntoTheNextPageAreNotRepeated() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+        mFeed.onItemVisible(2);
+
+        // Something new was published in between: "c" moved to page 2.
+        answer(2, "c", "d", "e");
+
+        assertEquals(list("a", "b", "c", "d", "e"), mFeed.getItems());
+    }
+
+    @Test
+    public void shortPageEndsTheFeed() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+        mFeed.onItemVisible(2);
+        answer(2, "d");
+
+        assertTrue(mFeed.isEnded());
+        mFeed.onItemVisible(3);
+        assertEquals(list(1, 2), mRequested);
+    }
+
+    @Test
+    public void failedPageWaitsForRetry() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+        mFeed.onItemVisible(2);
+        mRequests.get(2).onError(new RuntimeException("offline"));
+
+        assertEquals(list(2), mListener.errors);
+        mFeed.onItemVisible(2);
+        assertEquals(list(1, 2), mRequested);
+
+        mFeed.retry();
+        answer(2, "d", "e", "f");
+
+        assertEquals(list(1, 2, 2), mRequested);
+        assertEquals(6, mFeed.getItems().size());
+    }
+
+    @Test
+    public void refresh_dropsPagesOfBeforeAndReplacesItems() {
+        mFeed.start();
+        answer(1, "a", "b", "c");
+        mFeed.onItemVisible(2);
+        PublishSubject<List<String>> oldPage2 = mRequests.get(2);
+
+        mFeed.refresh();
+        assertEquals(list("a", "b", "c"), mFeed.getItems());
+        oldPage2.onNext(list("x", "y", "z"));
+        oldPage2.onCompleted();
+
+        answer(1, "n", "a", "b");
+
+        assertEquals(list("n", "a", "b"), mFeed.getItems());
+        assertEquals(2, mListener.resets);
+        assertTrue(mListener.appendedAt.isEmpty());
+    }
+
+    @Test
+    public void detachedFeedKeepsLoading() {
+        mFeed.start();
+        mFeed.setListener(null);
+
+        answer(1, "a", "b", "c");
+
+        assertEquals(3, mFeed.getItems().size());
+        assertEquals(0, mListener.resets);
+    }
+
+    private void answer(int page, String... items) {
+        PublishSubject<List<String>> request = mRequests.get(page);
+        request.onNext(list(items));
+        request.onCompleted();
+    }
+
+    @SafeVarargs
+    private static <T> List<T> list(T... items) {
+        List<T> list = new ArrayList<>();
+        for (T item : items) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    private static class RecordingListener implements PagedFeed.Listener<String> {
+
+        int resets;
+        final List<Integer> appendedAt = new ArrayList<>();
+        final List<Integer> errors = new ArrayList<>();
+
+        @Override
+        public void onItemsReset(List<String> items) {
+            resets++;
+        }
+
+        @Override
+        public void onItemsAppended(List<String> items, int start, int count) {
+            appendedAt.add(start);
+        }
+
+        @Override
+        public void onLoadingChanged(boolean loading) {
+        }
+
+        @Override
+        public void onPageError(int page, Throwable e) {
+            errors.add(page);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.wangxinarhat.mvp.data.source.local;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link SearchText}.
+ */
+public class SearchTextTest {
+
+    @Test
+    public void index_splitsCjkIntoCharacters() {
+        assertEquals("rxjava 使 用 指 南", SearchText.index("RxJava 使用指南"));
+    }
+
+    @Test
+    public void index_dropsPunctuation() {
+        assertEquals("android 开 发 v2 0", SearchText.index("Android，开发！(v2.0)"));
+    }
+
+    @Test
+    public void index_null_isEmpty() {
+        assertEquals("", SearchText.index(null));
+    }
+
+    @Test
+    public void match_lastWordIsPrefix() {
+        assertEquals("\"rx*\"", SearchText.match("Rx"));
+    }
+
+    @Test
+    public void match_cjkTermIsPhrase() {
+        assertEquals("\"安 卓\" \"开 发\"", SearchText.match(" 安卓  开发 "));
+    }
+
+    @Test
+    public void match_mixedTerm() {
+        assertEquals("\"rxjava 教 程\"", SearchText.match("RxJava教程"));
+        assertEquals("\"教 程 rx*\"", SearchText.match("教程Rx"));
+    }
+
+    @Test
+    public void match_dropsOperators() {
+        assertEquals("\"c*\" \"or*\"", SearchText.match("c++ \"OR\""));
+    }
+
+    @Test
+    public void match_nothingToSearch_isNull() {
+        assertNull(SearchText.match(" ,,, "));
+        assertNull(SearchText.match(""));
+        assertNull(SearchText.match(null));
+    }
+}
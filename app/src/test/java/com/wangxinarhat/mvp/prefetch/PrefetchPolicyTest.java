@@ -0,0 +1,102 @@
+package com.wangxinarhat.mvp.prefetch;
+
+import com.wangxinarhat.mvp.utils.DateUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PrefetchPolicy}.
+ */
+public class PrefetchPolicyTest {
+
+    private static final long BUDGET = 100;
+
+    private static final long ASSUMED_DAY_BYTES = 30;
+
+    private PrefetchPolicy mPolicy;
+
+    private Date mToday;
+
+    @Before
+    public void setupPolicy() {
+        mPolicy = new PrefetchPolicy(3, BUDGET, ASSUMED_DAY_BYTES);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2016, Calendar.MARCH, 1, 12, 0);
+        mToday = calendar.getTime();
+    }
+
+    @Test
+    public void runsOnlyUnmeteredAndCharging() {
+        assertTrue(mPolicy.canRun(true, true));
+        assertFalse(mPolicy.canRun(false, true));
+        assertFalse(mPolicy.canRun(true, false));
+        assertFalse(mPolicy.canRun(false, false));
+    }
+
+    @Test
+    public void candidateDays_newestFirstAcrossMonths() {
+        assertEquals(Arrays.asList(20160301, 20160229, 20160228), dayKeys(mPolicy.candidateDays(mToday)));
+    }
+
+    @Test
+    public void daysToFetch_nothingStored_fetchesAll() {
+        List<Date> days = mPolicy.daysToFetch(mToday, Collections.<Integer>emptySet());
+
+        assertEquals(Arrays.asList(20160301, 20160229, 20160228), dayKeys(days));
+    }
+
+    @Test
+    public void daysToFetch_skipsStoredPastDaysButNotToday() {
+        Set<Integer> stored = new HashSet<>(Arrays.asList(20160301, 20160228));
+
+        List<Date> days = mPolicy.daysToFetch(mToday, stored);
+
+        assertEquals(Arrays.asList(20160301, 20160229), dayKeys(days));
+    }
+
+    @Test
+    public void canFetchMore_leavesRoomForOneMoreDay() {
+        assertTrue(mPolicy.canFetchMore(0));
+        assertTrue(mPolicy.canFetchMore(BUDGET - ASSUMED_DAY_BYTES));
+        assertFalse(mPolicy.canFetchMore(BUDGET - ASSUMED_DAY_BYTES + 1));
+    }
+
+    @Test
+    public void cost_cachedIsFree() {
+        assertEquals(0, mPolicy.cost(5000, false));
+        assertEquals(0, mPolicy.cost(PrefetchPolicy.UNKNOWN_LENGTH, false));
+    }
+
+    @Test
+    public void cost_unknownLengthIsAssumed() {
+        assertEquals(5000, mPolicy.cost(5000, true));
+        assertEquals(ASSUMED_DAY_BYTES, mPolicy.cost(PrefetchPolicy.UNKNOWN_LENGTH, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noDays_throws() {
+        new PrefetchPolicy(0, BUDGET, ASSUMED_DAY_BYTES);
+    }
+
+    private static List<Integer> dayKeys(List<Date> days) {
+        Integer[] keys = new Integer[days.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = DateUtil.toDayKey(days.get(i));
+        }
+        return Arrays.asList(keys);
+    }
+}
@@ -0,0 +1,184 @@
+package com.wangxinarhat.mvp.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link IsoDates} and {@link DateUtil#toDate(Date)} with {@link SimpleDateFormat} and
+ * {@link Calendar} on random instants, in time zones with DST, half and quarter hour offsets and a
+ * skipped day. The seed is fixed, so a failure can be reproduced.
+ */
+public class IsoDatesTest {
+
+    private static final String[] ZONES = {
+            "UTC",
+            "Asia/Shanghai",
+            "America/New_York",
+            "Europe/London",
+            "America/St_Johns",
+            "Asia/Kathmandu",
+            "Australia/Lord_Howe",
+            "Pacific/Apia"
+    };
+
+    private static final long SEED = 20160812L;
+
+    private static final int SAMPLES = 20000;
+
+    // 1901-12-14 to 2038-01-19, where the zone data has real transitions.
+    private static final long MIN_MILLIS = Integer.MIN_VALUE * 1000L;
+    private static final long MAX_MILLIS = Integer.MAX_VALUE * 1000L;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private TimeZone mDefaultZone;
+
+    @Before
+    public void setUp() {
+        mDefaultZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mDefaultZone);
+        IsoDates.resetTimeZone();
+    }
+
+    @Test
+    public void format_matchesSimpleDateFormat() {
+        Random random = new Random(SEED);
+        for (String id : ZONES) {
+            SimpleDateFormat expected = useZone(id, "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+            for (int i = 0; i < SAMPLES; i++) {
+                long millis = randomMillis(random);
+                assertEquals(id + " " + millis, expected.format(new Date(millis)), IsoDates.format(millis));
+            }
+        }
+    }
+
+    @Test
+    public void parse_matchesSimpleDateFormat() throws ParseException {
+        Random random = new Random(SEED);
+        for (String id : ZONES) {
+            SimpleDateFormat expected = useZone(id, "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+            for (int i = 0; i < SAMPLES; i++) {
+                String text = expected.format(new Date(randomMillis(random)));
+                long parsed = IsoDates.parse(text);
+                long expectedMillis = expected.parse(text).getTime();
+                if (parsed != expectedMillis) {
+                    // The hour repeated when DST ends can be read either way, both must be that time.
+                    assertEquals(id + " " + text, text, expected.format(new Date(parsed)));
+                    assertTrue(id + " " + text, Math.abs(parsed - expectedMillis) <= MILLIS_PER_DAY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_acceptsOtherFractionsAndNoZ() {
+        useZone("Asia/Shanghai", "yyyy");
+        long millis = IsoDates.parse("2016-08-12T11:37:30.184Z");
+
+        assertEquals(millis, IsoDates.parse("2016-08-12T11:37:30.184"));
+        assertEquals(millis, IsoDates.parse("2016-08-12T11:37:30.184999Z"));
+        assertEquals(millis - 184, IsoDates.parse("2016-08-12T11:37:30Z"));
+        assertEquals(millis - 84, IsoDates.parse("2016-08-12T11:37:30.1Z"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsOtherFormats() {
+        IsoDates.parse("2016/08/12 11:37:30");
+    }
+
+    @Test
+    public void dayKeysAndDays_matchCalendar() {
+        Random random = new Random(SEED);
+        char[] chars = new char[IsoDates.FORMATTED_DAY_LENGTH];
+        for (String id : ZONES) {
+            SimpleDateFormat expected = useZone(id, "yyyy/MM/dd");
+            Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(id));
+            for (int i = 0; i < SAMPLES; i++) {
+                long millis = randomMillis(random);
+                calendar.setTimeInMillis(millis);
+                int dayKey = calendar.get(Calendar.YEAR) * 10000 + (calendar.get(Calendar.MONTH) + 1) * 100
+                        + calendar.get(Calendar.DAY_OF_MONTH);
+
+                assertEquals(id + " " + millis, dayKey, IsoDates.toDayKey(millis));
+                assertEquals(id + " " + millis, dayKey, DateUtil.toDayKey(new Date(millis)));
+                IsoDates.formatDay(millis, '/', chars, 0);
+                assertEquals(id + " " + millis, expected.format(new Date(millis)), new String(chars));
+            }
+        }
+    }
+
+    @Test
+    public void civilDays_matchCalendar() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        Random random = new Random(SEED);
+        for (int i = 0; i < SAMPLES; i++) {
+            long millis = randomMillis(random);
+            // Floor, before 1970 too.
+            long days = (millis - (millis % MILLIS_PER_DAY + MILLIS_PER_DAY) % MILLIS_PER_DAY) / MILLIS_PER_DAY;
+            calendar.setTimeInMillis(days * MILLIS_PER_DAY);
+            int year = calendar.get(Calendar.YEAR);
+            int month = calendar.get(Calendar.MONTH) + 1;
+            int day = calendar.get(Calendar.DAY_OF_MONTH);
+
+            assertEquals(year * 10000 + month * 100 + day, IsoDates.civilFromDays(days));
+            assertEquals(days, IsoDates.daysFromCivil(year, month, day));
+        }
+    }
+
+    /**
+     * Days far enough apart to land in the same slot of the cache, asked for in random order, so
+     * that entries are replaced and read back all the time.
+     */
+    @Test
+    public void toDate_matchesSimpleDateFormatThroughTheCache() {
+        Random random = new Random(SEED);
+        for (String id : ZONES) {
+            SimpleDateFormat expected = useZone(id, "yyyy/MM/dd");
+            long[] days = new long[256];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = randomMillis(random);
+            }
+            for (int i = 0; i < SAMPLES; i++) {
+                // Mostly a few recent days, like a list being scrolled, sometimes any of them.
+                int index = random.nextInt(4) == 0 ? random.nextInt(days.length) : random.nextInt(8);
+                Date date = new Date(days[index] + random.nextInt((int) MILLIS_PER_DAY) - MILLIS_PER_DAY / 2);
+                assertEquals(id + " " + date.getTime(), expected.format(date), DateUtil.toDate(date));
+            }
+        }
+    }
+
+    /**
+     * Makes {@code id} the default zone, as the app sees it.
+     *
+     * @return a {@link SimpleDateFormat} of {@code pattern} in that zone
+     */
+    private static SimpleDateFormat useZone(String id, String pattern) {
+        TimeZone zone = TimeZone.getTimeZone(id);
+        TimeZone.setDefault(zone);
+        IsoDates.resetTimeZone();
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(zone);
+        format.setLenient(false);
+        return format;
+    }
+
+    private static long randomMillis(Random random) {
+        return MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+    }
+}